@@ -0,0 +1,97 @@
+package org.word.benchmark;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.word.cache.IncrementalCache;
+import org.word.cache.SpecCache;
+import org.word.config.HttpClientStats;
+import org.word.config.JavaConfig;
+import org.word.service.WordService;
+import org.word.service.impl.WordServiceImpl;
+
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基准测试公用的 Spring 上下文和模板引擎
+ *
+ * @author cuixiuyin
+ */
+public class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 只包含解析所需的 bean，关闭解析结果缓存，每次调用都完整解析
+     */
+    public static AnnotationConfigApplicationContext context() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("swagger.cache.max-bytes", 0);
+        properties.put("swagger.parse.parallelism", Integer.getInteger("swagger.parse.parallelism", 4));
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(JavaConfig.class, HttpClientStats.class, SpecCache.class, IncrementalCache.class, WordServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+
+    public static WordService wordService(AnnotationConfigApplicationContext context) {
+        return context.getBean(WordService.class);
+    }
+
+    /**
+     * 与 WordController 相同配置的模板引擎
+     */
+    public static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    /**
+     * 只统计字符数的 Writer
+     */
+    public static class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.word.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.word.service.WordService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求、返回示例的生成（getValue）
+ * <p>
+ * getValue 是 WordServiceImpl 的私有方法，这里用少量接口、宽而深的请求体和返回值来测量，
+ * 解析耗时主要花在示例生成上。
+ *
+ * @author cuixiuyin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExampleBenchmark {
+
+    @Param({"3", "6", "10"})
+    private int depth;
+
+    @Param({"10", "50"})
+    private int width;
+
+    private AnnotationConfigApplicationContext context;
+
+    private WordService wordService;
+
+    private String spec;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkSupport.context();
+        wordService = BenchmarkSupport.wordService(context);
+        spec = SpecFixtures.bodyHeavy(depth, width);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> examples() {
+        return wordService.tableListFromString(spec);
+    }
+}
@@ -0,0 +1,62 @@
+package org.word.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.word.service.WordService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WordService.tableListFromString 完整解析
+ *
+ * @author cuixiuyin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int operations;
+
+    @Param({"flat", "deep", "cyclic"})
+    private SpecFixtures.Shape shape;
+
+    private AnnotationConfigApplicationContext context;
+
+    private WordService wordService;
+
+    private String spec;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkSupport.context();
+        wordService = BenchmarkSupport.wordService(context);
+        spec = SpecFixtures.spec(operations, shape);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> tableListFromString() {
+        return wordService.tableListFromString(spec);
+    }
+}
@@ -0,0 +1,81 @@
+package org.word.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * word 模板渲染，解析结果在 setup 中准备好，只测量渲染
+ * <p>
+ * 同时记录每次渲染输出的字符数，cyclic 文档中 definition 被多处引用，表格行数不应随 maxDepth 指数增长。
+ *
+ * @author cuixiuyin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int operations;
+
+    @Param({"flat", "deep", "cyclic"})
+    private SpecFixtures.Shape shape;
+
+    private SpringTemplateEngine templateEngine;
+
+    private Context context;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<String, Object> result;
+        try (AnnotationConfigApplicationContext applicationContext = BenchmarkSupport.context()) {
+            result = BenchmarkSupport.wordService(applicationContext)
+                    .tableListFromString(SpecFixtures.spec(operations, shape));
+        }
+        templateEngine = BenchmarkSupport.templateEngine();
+        context = new Context();
+        context.setVariables(result);
+        context.setVariable("url", "http://");
+        context.setVariable("download", 0);
+    }
+
+    /**
+     * 输出大小，和吞吐量一起出现在结果中
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+
+        /**
+         * 最近一次渲染输出的字符数
+         */
+        public long chars;
+    }
+
+    @Benchmark
+    public long render(Output output) {
+        BenchmarkSupport.CountingWriter writer = new BenchmarkSupport.CountingWriter();
+        templateEngine.process("word", context, writer);
+        output.chars = writer.getCount();
+        return output.chars;
+    }
+}
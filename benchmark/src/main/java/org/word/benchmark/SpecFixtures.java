@@ -0,0 +1,93 @@
+package org.word.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * 基准测试用的 swagger 2 文档，由 SpecGenerator 生成
+ * <p>
+ * 同样的参数总是生成同样的文档。
+ *
+ * @author cuixiuyin
+ */
+public class SpecFixtures {
+
+    /**
+     * definitions 之间的引用方式
+     */
+    public enum Shape {
+        /**
+         * 只引用没有子对象的 definition
+         */
+        flat,
+        /**
+         * 多层嵌套，每个 definition 引用下一层的 definition
+         */
+        deep,
+        /**
+         * 随机引用，包含循环引用
+         */
+        cyclic
+    }
+
+    private static final int METHODS_PER_PATH = 2;
+
+    private SpecFixtures() {
+    }
+
+    /**
+     * @param operations 接口数
+     * @param shape      definitions 之间的引用方式
+     * @return swagger json
+     */
+    public static String spec(int operations, Shape shape) throws IOException {
+        SpecGenerator.Options options = new SpecGenerator.Options();
+        options.setPaths(operations / METHODS_PER_PATH);
+        options.setMethodsPerPath(METHODS_PER_PATH);
+        options.setTags(Math.max(1, operations / 50));
+        options.setDefinitions(Math.max(20, operations / 5));
+        options.setSeed(operations * 31L + shape.ordinal());
+        switch (shape) {
+            case flat:
+                options.setDepth(1);
+                options.setAllOfRatio(0);
+                options.setCycleRatio(0);
+                break;
+            case deep:
+                options.setDepth(8);
+                options.setCycleRatio(0);
+                break;
+            default:
+                options.setDepth(4);
+                options.setCycleRatio(0.3);
+                break;
+        }
+        return generate(options);
+    }
+
+    /**
+     * 少量接口，请求体和返回值都是宽而深的对象，耗时主要在示例生成
+     *
+     * @param depth 嵌套层数
+     * @param width 每层的属性数
+     */
+    public static String bodyHeavy(int depth, int width) throws IOException {
+        SpecGenerator.Options options = new SpecGenerator.Options();
+        options.setPaths(10);
+        options.setMethodsPerPath(METHODS_PER_PATH);
+        options.setTags(1);
+        options.setDefinitions(depth);
+        options.setDepth(depth);
+        options.setPropertiesPerDefinition(width);
+        options.setAllOfRatio(0);
+        options.setMapRatio(0.5);
+        options.setCycleRatio(0);
+        return generate(options);
+    }
+
+    private static String generate(SpecGenerator.Options options) throws IOException {
+        StringWriter writer = new StringWriter();
+        new SpecGenerator(options).generate(writer);
+        return writer.toString();
+    }
+}
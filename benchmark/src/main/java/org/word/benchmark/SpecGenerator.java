@@ -0,0 +1,608 @@
+package org.word.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.Data;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * 生成大规模的 swagger 2 / OpenAPI 3 文档
+ * <p>
+ * 用 JsonGenerator 边生成边写出，内存占用与文档大小无关，可以生成 GB 级的文档。
+ * definitions（components）写在 paths 之前，SwaggerStreamParser 读到 paths 时头部已经完整。
+ * 相同的参数和 seed 总是生成相同的文档。
+ * <p>
+ * 命令行：java -cp benchmarks.jar org.word.benchmark.SpecGenerator --paths=100000 --version=3 --out=big.json
+ *
+ * @author cuixiuyin
+ */
+public class SpecGenerator {
+
+    private static final String[] METHODS = {"get", "post", "put", "delete", "patch"};
+
+    private static final String[] PRIMITIVES = {"integer", "string", "number", "boolean", "string", "integer"};
+
+    private static final String[] FORMATS = {"int64", null, "double", null, "date-time", "int32"};
+
+    private final Options options;
+
+    private final String refPrefix;
+
+    private final Random random;
+
+    private JsonGenerator json;
+
+    public SpecGenerator(Options options) {
+        this.options = options;
+        this.refPrefix = options.isOpenApi3() ? "#/components/schemas/" : "#/definitions/";
+        this.random = new Random(options.getSeed());
+    }
+
+    /**
+     * 生成参数
+     */
+    @Data
+    public static class Options {
+
+        /**
+         * 2 或 3
+         */
+        private int version = 2;
+
+        private int tags = 10;
+
+        private int paths = 1000;
+
+        /**
+         * 每个路由的请求方式数，最多 5 个
+         */
+        private int methodsPerPath = 2;
+
+        private int definitions = 200;
+
+        private int propertiesPerDefinition = 8;
+
+        /**
+         * definition 之间引用的层数
+         */
+        private int depth = 4;
+
+        /**
+         * 使用 allOf 组合的 definition 比例
+         */
+        private double allOfRatio = 0.1;
+
+        /**
+         * 带 additionalProperties 的 definition 比例
+         */
+        private double mapRatio = 0.1;
+
+        /**
+         * 引用同层或上层 definition（形成循环引用）的比例
+         */
+        private double cycleRatio = 0.05;
+
+        private long seed = 42;
+
+        private boolean pretty = false;
+
+        public boolean isOpenApi3() {
+            return version == 3;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+        Path out = null;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "true";
+            switch (kv[0]) {
+                case "version":
+                    options.setVersion(Integer.parseInt(value));
+                    break;
+                case "tags":
+                    options.setTags(Integer.parseInt(value));
+                    break;
+                case "paths":
+                    options.setPaths(Integer.parseInt(value));
+                    break;
+                case "methods":
+                    options.setMethodsPerPath(Integer.parseInt(value));
+                    break;
+                case "definitions":
+                    options.setDefinitions(Integer.parseInt(value));
+                    break;
+                case "properties":
+                    options.setPropertiesPerDefinition(Integer.parseInt(value));
+                    break;
+                case "depth":
+                    options.setDepth(Integer.parseInt(value));
+                    break;
+                case "allOf":
+                    options.setAllOfRatio(Double.parseDouble(value));
+                    break;
+                case "map":
+                    options.setMapRatio(Double.parseDouble(value));
+                    break;
+                case "cycles":
+                    options.setCycleRatio(Double.parseDouble(value));
+                    break;
+                case "seed":
+                    options.setSeed(Long.parseLong(value));
+                    break;
+                case "pretty":
+                    options.setPretty(Boolean.parseBoolean(value));
+                    break;
+                case "out":
+                    out = Paths.get(value);
+                    break;
+                default:
+                    System.err.println("unknown option " + arg);
+                    System.err.println("usage: SpecGenerator [--version=2|3] [--tags=N] [--paths=N] [--methods=N] [--definitions=N]"
+                            + " [--properties=N] [--depth=N] [--allOf=R] [--map=R] [--cycles=R] [--seed=N] [--pretty] [--out=FILE]");
+                    System.exit(1);
+            }
+        }
+        if (out == null) {
+            new SpecGenerator(options).generate(System.out);
+            System.out.flush();
+        } else {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) {
+                new SpecGenerator(options).generate(os);
+            }
+            System.err.println(out + ": " + Files.size(out) + " bytes");
+        }
+    }
+
+    public void generate(OutputStream os) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(os, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generate(generator);
+        }
+    }
+
+    public void generate(Writer writer) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generate(generator);
+        }
+    }
+
+    private void generate(JsonGenerator generator) throws IOException {
+        json = generator;
+        if (options.isPretty()) {
+            json.useDefaultPrettyPrinter();
+        }
+        json.writeStartObject();
+        writeHeader();
+        if (options.isOpenApi3()) {
+            json.writeObjectFieldStart("components");
+            json.writeObjectFieldStart("schemas");
+            writeDefinitions();
+            json.writeEndObject();
+            json.writeEndObject();
+        } else {
+            json.writeObjectFieldStart("definitions");
+            writeDefinitions();
+            json.writeEndObject();
+        }
+        json.writeObjectFieldStart("paths");
+        for (int i = 0; i < options.getPaths(); i++) {
+            writePath(i);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private void writeHeader() throws IOException {
+        if (options.isOpenApi3()) {
+            json.writeStringField("openapi", "3.0.1");
+        } else {
+            json.writeStringField("swagger", "2.0");
+        }
+        json.writeObjectFieldStart("info");
+        json.writeStringField("title", "Generated API");
+        json.writeStringField("description", "paths=" + options.getPaths() + ", definitions=" + options.getDefinitions()
+                + ", seed=" + options.getSeed());
+        json.writeStringField("version", "1.0");
+        json.writeEndObject();
+        if (options.isOpenApi3()) {
+            json.writeArrayFieldStart("servers");
+            json.writeStartObject();
+            json.writeStringField("url", "http://localhost:8080/api");
+            json.writeEndObject();
+            json.writeEndArray();
+        } else {
+            json.writeStringField("host", "localhost:8080");
+            json.writeStringField("basePath", "/api");
+            writeStrings("consumes", "application/json");
+            writeStrings("produces", "application/json");
+        }
+        json.writeArrayFieldStart("tags");
+        for (int i = 0; i < options.getTags(); i++) {
+            json.writeStartObject();
+            json.writeStringField("name", tagName(i));
+            json.writeStringField("description", "tag " + i);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    // ------------------------------------------------------------------ definitions
+
+    /**
+     * 第 i 个 definition 在第 i % depth 层，只引用下一层的 definition；
+     * 按 cycleRatio 额外引用同层或上层的 definition，形成循环引用
+     */
+    private void writeDefinitions() throws IOException {
+        for (int i = 0; i < options.getDefinitions(); i++) {
+            json.writeObjectFieldStart(modelName(i));
+            if (i > 0 && random.nextDouble() < options.getAllOfRatio()) {
+                json.writeArrayFieldStart("allOf");
+                json.writeStartObject();
+                json.writeStringField("$ref", refPrefix + modelName(random.nextInt(i)));
+                json.writeEndObject();
+                json.writeStartObject();
+                writeDefinitionBody(i);
+                json.writeEndObject();
+                json.writeEndArray();
+            } else {
+                writeDefinitionBody(i);
+            }
+            json.writeEndObject();
+        }
+    }
+
+    private void writeDefinitionBody(int index) throws IOException {
+        json.writeStringField("type", "object");
+        json.writeStringField("title", modelName(index));
+        json.writeStringField("description", "model " + index);
+        writeStrings("required", propertyName(0), propertyName(1));
+        json.writeObjectFieldStart("properties");
+        for (int p = 0; p < options.getPropertiesPerDefinition(); p++) {
+            json.writeObjectFieldStart(propertyName(p));
+            writePrimitive(p);
+            json.writeStringField("description", "property " + p);
+            json.writeEndObject();
+        }
+
+        int child = childOf(index);
+        if (child >= 0) {
+            json.writeObjectFieldStart("child");
+            writeRef(child);
+            json.writeEndObject();
+            json.writeObjectFieldStart("children");
+            json.writeStringField("type", "array");
+            json.writeObjectFieldStart("items");
+            writeRef(child);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        if (random.nextDouble() < options.getMapRatio()) {
+            // 属性为 map
+            json.writeObjectFieldStart("attributes");
+            json.writeStringField("type", "object");
+            json.writeObjectFieldStart("additionalProperties");
+            if (child >= 0) {
+                writeRef(child);
+            } else {
+                json.writeStringField("type", "string");
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        if (random.nextDouble() < options.getCycleRatio()) {
+            json.writeObjectFieldStart("parent");
+            writeRef(random.nextInt(index + 1));
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+
+        if (random.nextDouble() < options.getMapRatio()) {
+            // definition 本身为 map
+            json.writeObjectFieldStart("additionalProperties");
+            json.writeStringField("type", "string");
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * 下一层中随机的一个 definition，没有下一层时返回 -1
+     */
+    private int childOf(int index) {
+        int depth = Math.max(1, options.getDepth());
+        if (index % depth == depth - 1) {
+            return -1;
+        }
+        int first = index + 1;
+        if (first >= options.getDefinitions()) {
+            return -1;
+        }
+        int candidates = (options.getDefinitions() - 1 - first) / depth + 1;
+        return first + depth * random.nextInt(candidates);
+    }
+
+    // ------------------------------------------------------------------ paths
+
+    private void writePath(int index) throws IOException {
+        json.writeObjectFieldStart("/" + tagName(index % options.getTags()) + "/resource" + index + "/{id}");
+        if (index % 3 == 0) {
+            // 路由的公共参数
+            json.writeArrayFieldStart("parameters");
+            writeParameter("traceId", "header", "string", null, false);
+            json.writeEndArray();
+        }
+        int methods = Math.max(1, Math.min(METHODS.length, options.getMethodsPerPath()));
+        for (int m = 0; m < methods; m++) {
+            writeOperation(index, index * METHODS.length + m, METHODS[m]);
+        }
+        json.writeEndObject();
+    }
+
+    private void writeOperation(int pathIndex, int index, String method) throws IOException {
+        json.writeObjectFieldStart(method);
+        writeStrings("tags", tagName(pathIndex % options.getTags()));
+        json.writeStringField("summary", method + " resource " + pathIndex);
+        json.writeStringField("description", "operation " + index);
+        if (index % 5 != 4) {
+            json.writeStringField("operationId", method + "Resource" + pathIndex);
+        }
+        boolean hasBody = !"get".equals(method) && !"delete".equals(method);
+        boolean form = hasBody && index % 7 == 6;
+        boolean xml = index % 11 == 10;
+        if (!options.isOpenApi3()) {
+            if (form) {
+                writeStrings("consumes", "multipart/form-data");
+            } else if (xml) {
+                writeStrings("consumes", "application/json", "application/xml");
+                writeStrings("produces", "application/json", "application/xml");
+            }
+        }
+
+        json.writeArrayFieldStart("parameters");
+        writeParameter("id", "path", "integer", "int64", true);
+        writeParameter("page", "query", "integer", "int32", false);
+        writeArrayParameter("ids", "query");
+        writeParameter("token", "header", "string", null, false);
+        if (form && !options.isOpenApi3()) {
+            writeParameter("file", "formData", "file", null, true);
+            writeParameter("name", "formData", "string", null, false);
+        } else if (hasBody && !options.isOpenApi3()) {
+            json.writeStartObject();
+            json.writeStringField("in", "body");
+            json.writeStringField("name", "body");
+            json.writeBooleanField("required", true);
+            json.writeStringField("description", "request body");
+            json.writeFieldName("schema");
+            writeBodySchema(index);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        if (hasBody && options.isOpenApi3()) {
+            json.writeObjectFieldStart("requestBody");
+            json.writeBooleanField("required", true);
+            json.writeStringField("description", "request body");
+            json.writeObjectFieldStart("content");
+            if (form) {
+                json.writeObjectFieldStart("multipart/form-data");
+                json.writeObjectFieldStart("schema");
+                json.writeStringField("type", "object");
+                json.writeObjectFieldStart("properties");
+                json.writeObjectFieldStart("file");
+                json.writeStringField("type", "string");
+                json.writeStringField("format", "binary");
+                json.writeEndObject();
+                json.writeEndObject();
+                json.writeEndObject();
+                json.writeEndObject();
+            } else {
+                json.writeObjectFieldStart("application/json");
+                json.writeFieldName("schema");
+                writeBodySchema(index);
+                json.writeEndObject();
+                if (xml) {
+                    writeXmlContent();
+                }
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+
+        json.writeObjectFieldStart("responses");
+        json.writeObjectFieldStart("200");
+        json.writeStringField("description", "OK");
+        if (options.isOpenApi3()) {
+            json.writeObjectFieldStart("content");
+            json.writeObjectFieldStart("application/json");
+            json.writeFieldName("schema");
+            writeResponseSchema(index);
+            json.writeEndObject();
+            if (xml) {
+                writeXmlContent();
+            }
+            json.writeEndObject();
+        } else {
+            json.writeFieldName("schema");
+            writeResponseSchema(index);
+        }
+        json.writeEndObject();
+        json.writeObjectFieldStart("400");
+        json.writeStringField("description", "Bad Request");
+        json.writeEndObject();
+        json.writeObjectFieldStart("404");
+        json.writeStringField("description", "Not Found");
+        json.writeEndObject();
+        json.writeEndObject();
+
+        if (index % 13 == 12) {
+            json.writeBooleanField("deprecated", true);
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * 依次使用 $ref、对象数组、基本类型数组、allOf 四种请求体
+     */
+    private void writeBodySchema(int index) throws IOException {
+        int model = random.nextInt(options.getDefinitions());
+        json.writeStartObject();
+        switch (index % 4) {
+            case 0:
+                writeRef(model);
+                break;
+            case 1:
+                json.writeStringField("type", "array");
+                json.writeObjectFieldStart("items");
+                writeRef(model);
+                json.writeEndObject();
+                break;
+            case 2:
+                json.writeStringField("type", "array");
+                json.writeObjectFieldStart("items");
+                json.writeStringField("type", "string");
+                json.writeEndObject();
+                break;
+            default:
+                writeAllOf(model);
+                break;
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * 依次使用 $ref、对象数组、allOf、基本类型四种返回值
+     */
+    private void writeResponseSchema(int index) throws IOException {
+        int model = random.nextInt(options.getDefinitions());
+        json.writeStartObject();
+        switch (index % 4) {
+            case 0:
+                writeRef(model);
+                break;
+            case 1:
+                json.writeStringField("type", "array");
+                json.writeObjectFieldStart("items");
+                writeRef(model);
+                json.writeEndObject();
+                break;
+            case 2:
+                writeAllOf(model);
+                break;
+            default:
+                json.writeStringField("type", "string");
+                break;
+        }
+        json.writeEndObject();
+    }
+
+    private void writeXmlContent() throws IOException {
+        json.writeObjectFieldStart("application/xml");
+        json.writeObjectFieldStart("schema");
+        json.writeStringField("type", "string");
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writeAllOf(int model) throws IOException {
+        json.writeArrayFieldStart("allOf");
+        json.writeStartObject();
+        writeRef(model);
+        json.writeEndObject();
+        json.writeStartObject();
+        json.writeStringField("type", "object");
+        json.writeObjectFieldStart("properties");
+        json.writeObjectFieldStart(propertyName(0));
+        json.writeStringField("type", "string");
+        json.writeStringField("description", "overridden");
+        json.writeEndObject();
+        json.writeObjectFieldStart("extra");
+        json.writeStringField("type", "boolean");
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndArray();
+    }
+
+    private void writeParameter(String name, String in, String type, String format, boolean required) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", name);
+        json.writeStringField("in", in);
+        json.writeBooleanField("required", required);
+        json.writeStringField("description", name);
+        if (options.isOpenApi3()) {
+            json.writeObjectFieldStart("schema");
+        }
+        json.writeStringField("type", type);
+        if (format != null) {
+            json.writeStringField("format", format);
+        }
+        if (options.isOpenApi3()) {
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private void writeArrayParameter(String name, String in) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", name);
+        json.writeStringField("in", in);
+        json.writeBooleanField("required", false);
+        if (options.isOpenApi3()) {
+            json.writeObjectFieldStart("schema");
+        } else {
+            json.writeStringField("collectionFormat", "multi");
+        }
+        json.writeStringField("type", "array");
+        json.writeObjectFieldStart("items");
+        json.writeStringField("type", "string");
+        json.writeEndObject();
+        if (options.isOpenApi3()) {
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private void writePrimitive(int property) throws IOException {
+        int i = property % PRIMITIVES.length;
+        json.writeStringField("type", PRIMITIVES[i]);
+        if (FORMATS[i] != null) {
+            json.writeStringField("format", FORMATS[i]);
+        }
+    }
+
+    private void writeRef(int model) throws IOException {
+        json.writeStringField("$ref", refPrefix + modelName(model));
+    }
+
+    private void writeStrings(String field, String... values) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    private static String tagName(int index) {
+        return "tag" + index;
+    }
+
+    private static String modelName(int index) {
+        return "Model" + index;
+    }
+
+    private static String propertyName(int index) {
+        return "field" + index;
+    }
+}
@@ -2,8 +2,11 @@ package org.word;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.word.cli.WordCli;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.util.Arrays;
+
 /**
  * @author cuixiuyin
  * @description
@@ -14,6 +17,11 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 public class Application {
 
     public static void main(String[] args) {
+        // java -jar Swagger2Word.jar convert ... 直接在命令行转换，不启动 web 服务
+        if (args.length > 0 && WordCli.COMMAND.equals(args[0])) {
+            WordCli.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(Application.class, args);
     }
 }
@@ -0,0 +1,110 @@
+package org.word.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.word.model.Table;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量生成用的缓存
+ * <p>
+ * 按文档（url 或文件名）保存上一次解析的每个接口的 hash 和 Table，内容变化后只重新处理 hash 变化的接口；
+ * 按 tag 内容 hash 保存渲染好的 doc 片段，未变化的 tag 不再渲染。
+ *
+ * @author cuixiuyin
+ */
+@Component
+public class IncrementalCache {
+
+    private final boolean enabled;
+
+    private final Cache<String, Snapshot> snapshots;
+
+    private final Cache<String, String> fragments;
+
+    public IncrementalCache(@Value("${swagger.incremental.enabled:false}") boolean enabled,
+                            @Value("${swagger.incremental.max-documents:64}") long maxDocuments,
+                            @Value("${swagger.incremental.fragment-max-bytes:268435456}") long fragmentMaxBytes) {
+        this.enabled = enabled;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(maxDocuments)
+                .build();
+        this.fragments = CacheBuilder.newBuilder()
+                .maximumWeight(fragmentMaxBytes)
+                .<String, String>weigher((hash, fragment) -> fragment.length() * 2)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Snapshot getSnapshot(String document) {
+        return snapshots.getIfPresent(document);
+    }
+
+    public void putSnapshot(String document, Snapshot snapshot) {
+        snapshots.put(document, snapshot);
+    }
+
+    public String getFragment(String tagHash) {
+        return fragments.getIfPresent(tagHash);
+    }
+
+    public void putFragment(String tagHash, String fragment) {
+        fragments.put(tagHash, fragment);
+    }
+
+    /**
+     * 一次解析中每个接口的 hash 和生成的 Table
+     */
+    public static class Snapshot {
+
+        /**
+         * 请求方式和路径 -> 接口
+         */
+        private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+        /**
+         * hash 与上一次相同时返回上一次的 Table
+         */
+        public Table get(String operationKey, String hash) {
+            Operation operation = operations.get(operationKey);
+            return operation != null && operation.hash.equals(hash) ? operation.table : null;
+        }
+
+        public void put(String operationKey, String hash, Table table) {
+            operations.put(operationKey, new Operation(hash, table));
+        }
+
+        public int size() {
+            return operations.size();
+        }
+
+        /**
+         * Table -> 接口 hash
+         */
+        public Map<Table, String> hashes() {
+            Map<Table, String> hashes = new IdentityHashMap<>(operations.size());
+            operations.values().forEach(operation -> hashes.put(operation.table, operation.hash));
+            return hashes;
+        }
+    }
+
+    private static class Operation {
+
+        private final String hash;
+
+        private final Table table;
+
+        private Operation(String hash, Table table) {
+            this.hash = hash;
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.word.cache;
+
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 渲染结果的磁盘缓存
+ * <p>
+ * 以 (文档 hash, 文档格式, 渲染参数) 作为 key 保存最终生成的文档，
+ * 命中时直接写出文件内容，不再渲染。
+ * 总大小超过 max-bytes 时按 LRU 删除文件，默认关闭。
+ * 取出时在锁内打开文件，之后即使被淘汰删除，已打开的 FileChannel 仍可读完整内容。
+ *
+ * @author cuixiuyin
+ */
+@Slf4j
+@Component
+public class RenderCache {
+
+    private static final String SUFFIX = ".doc";
+
+    private final boolean enabled;
+
+    private final Path dir;
+
+    private final long maxBytes;
+
+    /**
+     * key -> 文件大小，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes = 0;
+
+    public RenderCache(@Value("${swagger.render-cache.enabled:false}") boolean enabled,
+                       @Value("${swagger.render-cache.dir:${java.io.tmpdir}/swagger2word}") String dir,
+                       @Value("${swagger.render-cache.max-bytes:1073741824}") long maxBytes) throws IOException {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        if (enabled) {
+            Files.createDirectories(this.dir);
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String key(String specHash, String format, Object... options) {
+        String raw = specHash + "|" + format + "|" + Arrays.deepToString(options);
+        return Hashing.sha256().hashString(raw, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * 取出缓存文件，不存在则调用 renderer 渲染并写入缓存
+     *
+     * @return 已打开的缓存文件，由调用方关闭
+     */
+    public FileChannel getOrRender(String key, Renderer renderer) throws IOException {
+        FileChannel cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        FileChannel channel;
+        Path tmp = Files.createTempFile(dir, key, ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                renderer.render(os);
+            }
+            Path file = dir.resolve(key + SUFFIX);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // 放入索引前打开，放入后可能立即被其他请求淘汰
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        put(key, channel.size());
+        return channel;
+    }
+
+    /**
+     * 将文件写到输出流
+     */
+    public static void transferTo(Path file, OutputStream os) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transferTo(channel, os);
+        }
+    }
+
+    /**
+     * 将已打开的文件从头写到输出流，不关闭 channel
+     * <p>
+     * Servlet API 只提供 OutputStream，拿不到 socket，transferTo 在这里是经过用户态缓冲区的复制，
+     * 只是省去了渲染；Tomcat 的 sendfile 在请求结束后才按文件名打开文件，可能已被淘汰删除，因此不使用。
+     */
+    public static void transferTo(FileChannel channel, OutputStream os) throws IOException {
+        WritableByteChannel target = Channels.newChannel(os);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    /**
+     * 在锁内打开，避免打开前被并发的 put 淘汰删除
+     */
+    private synchronized FileChannel get(String key) {
+        if (index.get(key) == null) {
+            return null;
+        }
+        Path file = dir.resolve(key + SUFFIX);
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return channel;
+        } catch (IOException e) {
+            // 文件已被外部删除
+            totalBytes -= index.remove(key);
+            return null;
+        }
+    }
+
+    private synchronized void put(String key, long size) {
+        Long old = index.put(key, size);
+        totalBytes += size - (old == null ? 0 : old);
+        evict();
+    }
+
+    /**
+     * 至少保留最近写入的一个文档；正在写出的文件已打开，删除不影响写出
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && index.size() > 1) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest.getKey() + SUFFIX));
+            } catch (IOException e) {
+                log.warn("delete cached document {} failed", eldest.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 启动时按最后访问时间恢复索引
+     */
+    private synchronized void load() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(Path::toFile)
+                    .filter(f -> f.getName().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(File::lastModified))
+                    .forEach(f -> {
+                        String name = f.getName();
+                        index.put(name.substring(0, name.length() - SUFFIX.length()), f.length());
+                        totalBytes += f.length();
+                    });
+        }
+        evict();
+        log.info("render cache {} loaded, {} documents, {} bytes", dir, index.size(), totalBytes);
+    }
+
+    /**
+     * 渲染回调
+     */
+    public interface Renderer {
+
+        void render(OutputStream os) throws IOException;
+    }
+}
@@ -0,0 +1,110 @@
+package org.word.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 解析结果缓存
+ * <p>
+ * 以 swagger json 内容的 sha256 作为 key，同一份文档只解析一次；
+ * 按文档字节数计算容量，超出后按 LRU 淘汰。
+ * 同时记录每个 url 最近一次的 ETag / Last-Modified，用于条件请求。
+ *
+ * @author cuixiuyin
+ */
+@Slf4j
+@Component
+public class SpecCache {
+
+    private final Cache<String, Entry> results;
+
+    private final Cache<String, Validator> validators;
+
+    public SpecCache(@Value("${swagger.cache.max-bytes:268435456}") long maxBytes,
+                     @Value("${swagger.cache.max-urls:1024}") long maxUrls) {
+        this.results = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, Entry>weigher((hash, entry) -> (int) Math.min(Integer.MAX_VALUE, entry.size))
+                .recordStats()
+                .build();
+        this.validators = CacheBuilder.newBuilder()
+                .maximumSize(maxUrls)
+                .build();
+    }
+
+    public static String hash(String jsonStr) {
+        return Hashing.sha256().hashString(jsonStr, StandardCharsets.UTF_8).toString();
+    }
+
+    public Map<String, Object> get(String hash) {
+        Entry entry = results.getIfPresent(hash);
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * @param hash   文档 hash
+     * @param size   文档字节数，作为缓存权重
+     * @param result 解析结果，放入缓存后不可再修改
+     */
+    public void put(String hash, long size, Map<String, Object> result) {
+        results.put(hash, new Entry(size, result));
+        log.debug("spec cache put {}, {}", hash, results.stats());
+    }
+
+    public boolean contains(String hash) {
+        return hash != null && results.asMap().containsKey(hash);
+    }
+
+    public Validator getValidator(String url) {
+        return validators.getIfPresent(url);
+    }
+
+    public void putValidator(String url, Validator validator) {
+        validators.put(url, validator);
+    }
+
+    public CacheStats stats() {
+        return results.stats();
+    }
+
+    public long size() {
+        return results.size();
+    }
+
+    private static class Entry {
+
+        private final long size;
+
+        private final Map<String, Object> result;
+
+        private Entry(long size, Map<String, Object> result) {
+            this.size = size;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 条件请求所需的校验信息
+     */
+    @Data
+    public static class Validator {
+
+        private String etag;
+
+        private String lastModified;
+
+        /**
+         * 对应文档内容的 hash
+         */
+        private String hash;
+    }
+}
@@ -0,0 +1,61 @@
+package org.word.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.word.model.GenerationTrace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近的生成跟踪，按 id 查询
+ *
+ * @author cuixiuyin
+ */
+@Component
+public class TraceStore {
+
+    private final int top;
+
+    private final Cache<String, GenerationTrace> traces;
+
+    public TraceStore(@Value("${swagger.trace.max-traces:100}") long maxTraces,
+                      @Value("${swagger.trace.ttl-minutes:30}") long ttlMinutes,
+                      @Value("${swagger.trace.top:10}") int top) {
+        this.top = top;
+        this.traces = CacheBuilder.newBuilder()
+                .maximumSize(maxTraces)
+                .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * @param document 生成的 url 或文件名
+     */
+    public GenerationTrace create(String document) {
+        GenerationTrace trace = new GenerationTrace(UUID.randomUUID().toString(), document, top);
+        traces.put(trace.getId(), trace);
+        return trace;
+    }
+
+    /**
+     * @return 不存在或已过期时返回 null
+     */
+    public GenerationTrace get(String id) {
+        return traces.getIfPresent(id);
+    }
+
+    /**
+     * 按开始时间倒序
+     */
+    public List<GenerationTrace> list() {
+        List<GenerationTrace> list = new ArrayList<>(traces.asMap().values());
+        list.sort(Comparator.comparingLong(GenerationTrace::getStartedAt).reversed());
+        return list;
+    }
+}
@@ -0,0 +1,262 @@
+package org.word.cli;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.word.cache.SpecCache;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+import org.word.service.impl.RenderServiceImpl;
+import org.word.service.impl.WordServiceImpl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 命令行批量转换，不启动 Spring Boot 和内嵌的 Tomcat
+ * <p>
+ * java -jar Swagger2Word.jar convert [--format=doc|docx] [--out=DIR] [--threads=N] [--parse-threads=N] [--max-depth=N] FILE|DIR|URL...
+ * <p>
+ * 目录下的 *.json 全部转换，本地文件以内存映射方式读取。
+ * 多个文档在 threads 个线程中并发转换，任一文档失败时退出码为 1。
+ *
+ * @author cuixiuyin
+ */
+public class WordCli {
+
+    public static final String COMMAND = "convert";
+
+    private static final String USAGE = "usage: convert [--format=doc|docx] [--out=DIR] [--threads=N] [--parse-threads=N]"
+            + " [--max-depth=N] FILE|DIR|URL...";
+
+    private final String format;
+
+    private final Path outDir;
+
+    private final int threads;
+
+    private final int parseThreads;
+
+    private final int maxDepth;
+
+    private final List<String> inputs;
+
+    private WordCli(Map<String, String> options, List<String> inputs) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        this.format = options.getOrDefault("format", "doc");
+        this.outDir = Paths.get(options.getOrDefault("out", "."));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Math.min(4, cpus))));
+        this.parseThreads = Integer.parseInt(options.getOrDefault("parse-threads", String.valueOf(cpus)));
+        this.maxDepth = Integer.parseInt(options.getOrDefault("max-depth", "10"));
+        this.inputs = inputs;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return 退出码：0 全部成功，1 有文档转换失败，2 参数错误
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Map<String, String> options = new HashMap<>();
+        List<String> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if ("-h".equals(arg) || "--help".equals(arg)) {
+                out.println(USAGE);
+                return 0;
+            }
+            if (arg.startsWith("--")) {
+                String[] kv = arg.substring(2).split("=", 2);
+                options.put(kv[0], kv.length > 1 ? kv[1] : "true");
+            } else {
+                inputs.add(arg);
+            }
+        }
+        if (inputs.isEmpty()) {
+            err.println(USAGE);
+            return 2;
+        }
+        WordCli cli;
+        try {
+            cli = new WordCli(options, inputs);
+        } catch (NumberFormatException e) {
+            err.println(USAGE);
+            return 2;
+        }
+        try {
+            return cli.convertAll(out, err);
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private int convertAll(PrintStream out, PrintStream err) throws IOException, InterruptedException {
+        List<String> specs = expand(inputs);
+        Files.createDirectories(outDir);
+
+        AtomicInteger index = new AtomicInteger();
+        ExecutorService parseExecutor = Executors.newFixedThreadPool(parseThreads, r -> {
+            Thread thread = new Thread(r, "swagger-parse-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService fileExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, specs.size())));
+        // 创建 http 连接池较慢，只转换本地文件时不创建
+        RestTemplate restTemplate = specs.stream().anyMatch(WordCli::isUrl) ? restTemplate() : null;
+        // 每个文档只转换一次，不保留解析结果
+        WordService wordService = new WordServiceImpl(restTemplate, new SpecCache(0, 0), parseExecutor, parseThreads, maxDepth);
+        RenderService renderService = new RenderServiceImpl(templateEngine());
+
+        long start = System.currentTimeMillis();
+        int failed = 0;
+        try {
+            Set<String> names = new HashSet<>();
+            List<Future<String>> futures = new ArrayList<>();
+            for (String spec : specs) {
+                Path target = outDir.resolve(uniqueName(names, nameOf(spec), renderService.extension(format)));
+                futures.add(fileExecutor.submit(() -> convert(wordService, renderService, spec, target)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    out.println(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    failed++;
+                    err.println("FAILED " + specs.get(i) + ": " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            fileExecutor.shutdownNow();
+            parseExecutor.shutdownNow();
+        }
+        out.println(String.format("%d converted, %d failed in %d ms", specs.size() - failed, failed,
+                System.currentTimeMillis() - start));
+        return failed == 0 ? 0 : 1;
+    }
+
+    private String convert(WordService wordService, RenderService renderService, String spec, Path target) throws IOException {
+        long start = System.currentTimeMillis();
+        boolean remote = isUrl(spec);
+        Map<String, Object> result = remote ? wordService.tableList(spec) : wordService.tableListFromFile(Paths.get(spec));
+        if (result.get("tableMap") == null) {
+            // WordService 解析失败时返回空结果，错误已记录在日志中
+            throw new IOException("parse failed");
+        }
+        Map<String, Object> model = new HashMap<>(result);
+        model.put("url", remote ? spec : "http://");
+        model.put("download", 0);
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(target))) {
+            renderService.render(model, format, os);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return String.format("%s -> %s (%d ms)", spec, target, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 响应体由 WordService 直接解析，不需要默认的消息转换器
+     */
+    private RestTemplate restTemplate() {
+        RestTemplate restTemplate = new RestTemplate(Collections.singletonList(new ByteArrayHttpMessageConverter()));
+        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .useSystemProperties()
+                .setMaxConnTotal(threads)
+                .setMaxConnPerRoute(threads)
+                .build()));
+        return restTemplate;
+    }
+
+    /**
+     * 与 Spring Boot 的 thymeleaf 配置相同，使用 classpath:/templates/ 下的模板
+     */
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        return templateEngine;
+    }
+
+    /**
+     * 目录展开为其中的 *.json 文件
+     */
+    private static List<String> expand(List<String> inputs) throws IOException {
+        List<String> specs = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = isUrl(input) ? null : Paths.get(input);
+            if (path != null && Files.isDirectory(path)) {
+                List<String> files = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.json")) {
+                    stream.forEach(file -> files.add(file.toString()));
+                }
+                files.sort(null);
+                specs.addAll(files);
+            } else if (path != null && !Files.isRegularFile(path)) {
+                throw new IOException("no such file: " + input);
+            } else {
+                specs.add(input);
+            }
+        }
+        return specs;
+    }
+
+    private static boolean isUrl(String input) {
+        return input.startsWith("http://") || input.startsWith("https://");
+    }
+
+    /**
+     * 本地文件取文件名，地址取 host 和路径
+     */
+    private static String nameOf(String spec) {
+        String name;
+        if (isUrl(spec)) {
+            URI uri = URI.create(spec);
+            name = StringUtils.defaultString(uri.getHost()) + StringUtils.defaultString(uri.getPath());
+        } else {
+            name = Paths.get(spec).getFileName().toString();
+        }
+        return StringUtils.defaultIfBlank(StringUtils.removeEnd(name, ".json"), "toWord");
+    }
+
+    private static String uniqueName(Set<String> names, String name, String extension) {
+        String base = name.replaceAll("[\\\\/:*?\"<>|]", "_");
+        String fileName = base + "." + extension;
+        for (int i = 2; !names.add(fileName); i++) {
+            fileName = base + "-" + i + "." + extension;
+        }
+        return fileName;
+    }
+}
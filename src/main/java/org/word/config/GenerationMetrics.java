@@ -0,0 +1,234 @@
+package org.word.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import org.word.model.GenerationTrace;
+import org.word.model.ModelAttr;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 文档生成各阶段的耗时和大小统计
+ * <p>
+ * 各阶段耗时记录在 swagger.generation 中，以 stage 标签区分；
+ * 文档大小、接口数、definition 数和输出大小为分布统计，缓存命中按 cache、result 标签计数。
+ * 通过 actuator 的 /actuator/prometheus 和 /actuator/metrics 查看。
+ * <p>
+ * 当前线程绑定了 GenerationTrace 时，各阶段耗时同时记录到该次生成的明细中。
+ *
+ * @author cuixiuyin
+ */
+@Component
+public class GenerationMetrics {
+
+    /**
+     * 发出请求到收到响应头，响应体边下载边解析，计入 parse
+     */
+    public static final String FETCH = "fetch";
+
+    /**
+     * 读取并解析整个文档，包括 definitions 和所有接口
+     */
+    public static final String PARSE = "parse";
+
+    public static final String DEFINITIONS = "definitions";
+
+    /**
+     * 单个接口生成 Table
+     */
+    public static final String OPERATION = "operation";
+
+    /**
+     * 单个接口生成请求和返回示例
+     */
+    public static final String EXAMPLE = "example";
+
+    public static final String RENDER = "render";
+
+    /**
+     * 渲染好的内容写到响应
+     */
+    public static final String WRITE = "write";
+
+    private static final String[] STAGES = {FETCH, PARSE, DEFINITIONS, OPERATION, EXAMPLE, RENDER, WRITE};
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<GenerationTrace> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    private final DistributionSummary specBytes;
+
+    private final DistributionSummary operations;
+
+    private final DistributionSummary definitions;
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (String stage : STAGES) {
+            timers.put(stage, Timer.builder("swagger.generation")
+                    .description("Time spent in each document generation stage")
+                    .tag("stage", stage)
+                    .register(registry));
+        }
+        this.specBytes = DistributionSummary.builder("swagger.spec.size")
+                .description("Size of parsed specs")
+                .baseUnit("bytes")
+                .register(registry);
+        this.operations = DistributionSummary.builder("swagger.spec.operations")
+                .description("Operations per parsed spec")
+                .register(registry);
+        this.definitions = DistributionSummary.builder("swagger.spec.definitions")
+                .description("Definitions per parsed spec")
+                .register(registry);
+    }
+
+    /**
+     * 不导出的统计，供命令行和不启动 Spring 的场景使用
+     */
+    public static GenerationMetrics noop() {
+        return new GenerationMetrics(new CompositeMeterRegistry());
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录从 start 开始到现在的耗时
+     */
+    public void stop(String stage, long start) {
+        long nanos = System.nanoTime() - start;
+        timers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        GenerationTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.stage(stage, nanos);
+        }
+    }
+
+    /**
+     * 记录单个接口的耗时，跟踪时同时记录该接口分配的内存
+     *
+     * @param allocated 开始处理时 {@link #allocated()} 的值
+     */
+    public void operation(String name, long start, long allocated) {
+        stop(OPERATION, start);
+        GenerationTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.operation(name, System.nanoTime() - start, allocated() - allocated);
+        }
+    }
+
+    /**
+     * 跟踪时统计 definition 展开后的大小
+     *
+     * @param models 只在跟踪时调用，不跟踪时不构建
+     */
+    public void definitions(Supplier<Map<String, ModelAttr>> models, int maxDepth) {
+        GenerationTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.definitions(models.get(), maxDepth);
+        }
+    }
+
+    /**
+     * 开始跟踪当前请求
+     */
+    public void begin(GenerationTrace trace) {
+        CURRENT.set(trace);
+        trace.start(allocated());
+    }
+
+    public void end(GenerationTrace trace) {
+        trace.finish(allocated());
+        CURRENT.remove();
+    }
+
+    /**
+     * 当前线程绑定的跟踪，没有时为 null
+     */
+    public GenerationTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 将跟踪绑定到当前线程，用于处理接口的工作线程
+     *
+     * @return 之前绑定的跟踪
+     */
+    public GenerationTrace attach(GenerationTrace trace) {
+        GenerationTrace previous = CURRENT.get();
+        if (trace == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(trace);
+        }
+        return previous;
+    }
+
+    /**
+     * 跟踪时返回当前线程累计分配的字节数，否则或 JVM 不支持时返回 0
+     */
+    public long allocated() {
+        if (CURRENT.get() == null || !(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        return threads.isThreadAllocatedMemoryEnabled() ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * 一次完整解析的文档大小、接口数和 definition 数
+     */
+    public void spec(long bytes, int operationCount, int definitionCount) {
+        specBytes.record(bytes);
+        operations.record(operationCount);
+        definitions.record(definitionCount);
+    }
+
+    /**
+     * 输出的文档大小
+     *
+     * @param format doc 或 docx
+     */
+    public void output(String format, long bytes) {
+        DistributionSummary.builder("swagger.output.size")
+                .description("Size of generated documents")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * @param cache spec（解析结果）、render（渲染好的文件）、operation（增量解析复用的接口）、fragment（增量渲染复用的片段）
+     */
+    public void cache(String cache, boolean hit) {
+        cache(cache, hit ? 1 : 0, hit ? 0 : 1);
+    }
+
+    public void cache(String cache, long hits, long misses) {
+        cacheCounter(cache, "hit").increment(hits);
+        cacheCounter(cache, "miss").increment(misses);
+    }
+
+    private Counter cacheCounter(String cache, String result) {
+        return Counter.builder("swagger.cache.requests")
+                .description("Cache lookups by cache and result")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+}
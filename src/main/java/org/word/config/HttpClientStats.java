@@ -0,0 +1,107 @@
+package org.word.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 获取 swagger 文档的连接池状态和压缩响应统计，同时导出到 actuator
+ *
+ * @author cuixiuyin
+ */
+@Component
+public class HttpClientStats implements HttpResponseInterceptor, MeterBinder {
+
+    @Resource
+    private PoolingHttpClientConnectionManager httpConnectionManager;
+
+    private final AtomicLong responses = new AtomicLong();
+
+    private final AtomicLong compressedResponses = new AtomicLong();
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        responses.incrementAndGet();
+        Header encoding = response.getEntity() == null ? null : response.getEntity().getContentEncoding();
+        if (encoding != null && encoding.getValue() != null && !"identity".equalsIgnoreCase(encoding.getValue().trim())) {
+            compressedResponses.incrementAndGet();
+        }
+    }
+
+    /**
+     * 正在使用的连接数
+     */
+    public int leased() {
+        return httpConnectionManager.getTotalStats().getLeased();
+    }
+
+    /**
+     * 空闲可复用的连接数
+     */
+    public int available() {
+        return httpConnectionManager.getTotalStats().getAvailable();
+    }
+
+    /**
+     * 等待连接的请求数
+     */
+    public int pending() {
+        return httpConnectionManager.getTotalStats().getPending();
+    }
+
+    public long responses() {
+        return responses.get();
+    }
+
+    /**
+     * 服务端返回 gzip/deflate 压缩的响应数
+     */
+    public long compressedResponses() {
+        return compressedResponses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("swagger.http.pool.leased", this, HttpClientStats::leased)
+                .description("Connections in use")
+                .register(registry);
+        Gauge.builder("swagger.http.pool.available", this, HttpClientStats::available)
+                .description("Idle connections")
+                .register(registry);
+        Gauge.builder("swagger.http.pool.pending", this, HttpClientStats::pending)
+                .description("Requests waiting for a connection")
+                .register(registry);
+        FunctionCounter.builder("swagger.http.responses", responses, AtomicLong::get)
+                .description("Responses received when fetching specs")
+                .register(registry);
+        FunctionCounter.builder("swagger.http.responses.compressed", compressedResponses, AtomicLong::get)
+                .description("Compressed responses received when fetching specs")
+                .register(registry);
+    }
+
+    public Map<String, Object> snapshot() {
+        PoolStats stats = httpConnectionManager.getTotalStats();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("leased", stats.getLeased());
+        snapshot.put("available", stats.getAvailable());
+        snapshot.put("pending", stats.getPending());
+        snapshot.put("max", stats.getMax());
+        snapshot.put("maxPerRoute", httpConnectionManager.getDefaultMaxPerRoute());
+        snapshot.put("responses", responses.get());
+        snapshot.put("compressedResponses", compressedResponses.get());
+        return snapshot;
+    }
+}
@@ -1,9 +1,18 @@
 package org.word.config;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
@@ -16,6 +25,10 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by XiuYin.Cui on 2018/6/21.
@@ -23,25 +36,96 @@ import java.security.cert.X509Certificate;
 @Configuration
 public class JavaConfig {
 
-    @Bean
-    public RestTemplate restTemplate() throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
+    /**
+     * 获取 swagger 文档用的连接池，同一网关的并发下载复用连接
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${swagger.http.max-total:64}") int maxTotal,
+            @Value("${swagger.http.max-per-route:16}") int maxPerRoute,
+            @Value("${swagger.http.validate-after-inactivity-ms:2000}") int validateAfterInactivity)
+            throws KeyStoreException, NoSuchAlgorithmException, KeyManagementException {
         TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
         SSLContext sslContext = org.apache.http.ssl.SSLContexts.custom()
                 .loadTrustMaterial(null, acceptingTrustStrategy)
                 .build();
         SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setSSLSocketFactory(csf)
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", csf)
                 .build();
-        HttpComponentsClientHttpRequestFactory requestFactory =
-                new HttpComponentsClientHttpRequestFactory();
-        requestFactory.setHttpClient(httpClient);
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+        return connectionManager;
+    }
+
+    /**
+     * 服务端未返回 Keep-Alive 超时时间时，连接最多保持 keepAlive 秒；空闲超过 idleTimeout 秒的连接由后台线程关闭。
+     * 默认发送 Accept-Encoding: gzip,deflate，响应体读取时边读边解压。
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                          HttpClientStats httpClientStats,
+                                          @Value("${swagger.http.connect-timeout-ms:60000}") int connectTimeout,
+                                          @Value("${swagger.http.read-timeout-ms:60000}") int readTimeout,
+                                          @Value("${swagger.http.lease-timeout-ms:60000}") int leaseTimeout,
+                                          @Value("${swagger.http.keep-alive-seconds:30}") long keepAlive,
+                                          @Value("${swagger.http.idle-timeout-seconds:60}") long idleTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(leaseTimeout)
+                .build();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : TimeUnit.SECONDS.toMillis(keepAlive);
+        };
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.SECONDS)
+                // 在解压之前执行，才能看到原始的 Content-Encoding
+                .addInterceptorFirst(httpClientStats)
+                .build();
+    }
 
-        //60s
-        requestFactory.setConnectTimeout(60 * 1000);
-        requestFactory.setReadTimeout(60 * 1000);
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        // 超时时间使用 httpClient 的 RequestConfig
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(httpClient);
         RestTemplate restTemplate = new RestTemplate(requestFactory);
         restTemplate.getMessageConverters().set(1, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         return restTemplate;
     }
+
+    /**
+     * 解析路由用的线程池，所有请求共用
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService parseExecutor(@Value("${swagger.parse.parallelism:4}") int parallelism) {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "swagger-parse-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 批量生成文档用的线程池，限制同时获取、解析和渲染的文档数
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchExecutor(@Value("${swagger.batch.concurrency:4}") int concurrency) {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "swagger-batch-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
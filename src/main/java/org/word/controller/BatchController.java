@@ -0,0 +1,237 @@
+package org.word.controller;
+
+import io.swagger.annotations.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.multipart.MultipartFile;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 批量生成文档
+ * <p>
+ * 各文档在 batchExecutor 中并发获取、解析和渲染，先完成的先写入 zip，
+ * 整个 zip 边生成边返回，不等待全部文档完成。转换失败的文档写入一个 .error.txt。
+ *
+ * @author cuixiuyin
+ */
+@Controller
+@Slf4j
+public class BatchController {
+
+    @Resource
+    private WordService tableService;
+    @Resource
+    private RenderService renderService;
+    @Resource
+    private ExecutorService batchExecutor;
+
+    @ApiOperation(value = "将多个 swagger 文档地址批量转换成 word 文档，打包为 zip 下载", notes = "", tags = {"Word"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
+    @RequestMapping(value = "/batchToWord", method = {RequestMethod.POST})
+    public void batch(@ApiParam("资源地址列表") @RequestBody List<String> urls,
+                      @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                      HttpServletResponse response) throws IOException {
+        List<Conversion> conversions = new ArrayList<>();
+        for (String url : urls) {
+            conversions.add(new Conversion(nameOf(url), url, () -> tableService.tableList(url)));
+        }
+        writeZip(conversions, format, response);
+    }
+
+    @ApiOperation(value = "将多个 swagger json 文件批量转换成 word 文档，打包为 zip 下载", notes = "", tags = {"Word"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
+    @RequestMapping(value = "/batchFilesToWord", method = {RequestMethod.POST})
+    public void batchFiles(@ApiParam("swagger json files") @RequestPart("jsonFiles") MultipartFile[] jsonFiles,
+                           @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                           HttpServletResponse response) throws IOException {
+        List<Conversion> conversions = new ArrayList<>();
+        for (MultipartFile jsonFile : jsonFiles) {
+            String name = StringUtils.removeEnd(StringUtils.defaultIfBlank(jsonFile.getOriginalFilename(), "toWord"), ".json");
+            conversions.add(new Conversion(name, "http://", () -> tableService.tableList(jsonFile)));
+        }
+        writeZip(conversions, format, response);
+    }
+
+    private void writeZip(List<Conversion> conversions, String format, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader("Content-disposition", "attachment;filename=swagger2word.zip");
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(batchExecutor);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Conversion conversion : conversions) {
+            futures.add(completionService.submit(() -> convert(conversion, format, aborted)));
+        }
+
+        Set<String> entryNames = new HashSet<>();
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(response.getOutputStream()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < futures.size(); i++) {
+                Result result = completionService.take().get();
+                if (result.file != null) {
+                    zip.putNextEntry(new ZipEntry(uniqueName(entryNames, result.name, renderService.extension(format))));
+                    try {
+                        Files.copy(result.file, zip);
+                    } finally {
+                        Files.deleteIfExists(result.file);
+                    }
+                } else {
+                    zip.putNextEntry(new ZipEntry(uniqueName(entryNames, result.name, "error.txt")));
+                    zip.write(result.error.getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+                // 每个文档写完立即发给客户端
+                zip.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("batch interrupted");
+        } catch (ExecutionException e) {
+            // convert 不抛出异常
+            throw new IOException(e.getCause());
+        } finally {
+            aborted.set(true);
+            for (Future<Result> future : futures) {
+                future.cancel(true);
+                deleteQuietly(future);
+            }
+        }
+    }
+
+    /**
+     * 获取、解析并渲染到临时文件，异常转换为错误信息
+     */
+    private Result convert(Conversion conversion, String format, AtomicBoolean aborted) {
+        Path file = null;
+        try {
+            Map<String, Object> result = conversion.parser.get();
+            if (result.get("tableMap") == null) {
+                // WordService 解析失败时返回空结果，错误已记录在日志中
+                return new Result(conversion.name, null, "parse failed: " + conversion.url);
+            }
+            Map<String, Object> model = new HashMap<>(result);
+            model.put("url", conversion.url);
+            model.put("download", 0);
+            file = Files.createTempFile("swagger2word-batch", "." + renderService.extension(format));
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+                renderService.render(model, format, os);
+            }
+            if (aborted.get()) {
+                Files.deleteIfExists(file);
+                return new Result(conversion.name, null, "aborted");
+            }
+            return new Result(conversion.name, file, null);
+        } catch (Exception e) {
+            log.error("convert {} failed", conversion.url, e);
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // 临时文件删除失败不影响返回结果
+                }
+            }
+            return new Result(conversion.name, null, e.toString());
+        }
+    }
+
+    private static void deleteQuietly(Future<Result> future) {
+        if (!future.isDone() || future.isCancelled()) {
+            return;
+        }
+        try {
+            Result result = future.get();
+            if (result.file != null) {
+                Files.deleteIfExists(result.file);
+            }
+        } catch (Exception ignored) {
+            // 已写入 zip 的文件已被删除
+        }
+    }
+
+    /**
+     * 取地址中的 host 和路径作为文件名
+     */
+    private static String nameOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String name = StringUtils.defaultString(uri.getHost()) + StringUtils.defaultString(uri.getPath());
+            return StringUtils.defaultIfBlank(StringUtils.removeEnd(name, ".json"), "toWord");
+        } catch (IllegalArgumentException e) {
+            return "toWord";
+        }
+    }
+
+    private static String uniqueName(Set<String> names, String name, String extension) {
+        String base = name.replaceAll("[\\\\/:*?\"<>|]", "_");
+        String entryName = base + "." + extension;
+        for (int i = 2; !names.add(entryName); i++) {
+            entryName = base + "-" + i + "." + extension;
+        }
+        return entryName;
+    }
+
+    private static class Conversion {
+
+        private final String name;
+
+        /**
+         * 模板中的 url 参数
+         */
+        private final String url;
+
+        private final Supplier<Map<String, Object>> parser;
+
+        private Conversion(String name, String url, Supplier<Map<String, Object>> parser) {
+            this.name = name;
+            this.url = url;
+            this.parser = parser;
+        }
+    }
+
+    private static class Result {
+
+        private final String name;
+
+        private final Path file;
+
+        private final String error;
+
+        private Result(String name, Path file, String error) {
+            this.name = name;
+            this.file = file;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.word.controller;
+
+import io.swagger.annotations.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.multipart.MultipartFile;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.word.service.DiffService;
+import org.word.service.WordService;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 比较同一文档的两个版本，生成接口变更报告
+ *
+ * @author cuixiuyin
+ */
+@Controller
+@Slf4j
+public class DiffController {
+
+    private static final String TEMPLATE = "diff";
+
+    private static final String HTML = "html";
+
+    @Resource
+    private WordService tableService;
+    @Resource
+    private DiffService diffService;
+    @Resource
+    private SpringTemplateEngine springTemplateEngine;
+
+    @ApiOperation(value = "比较两个 swagger 文档地址，生成接口变更报告", notes = "", tags = {"Word"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。"), @ApiResponse(code = 400, message = "文档解析失败。")})
+    @RequestMapping(value = "/diffToWord", method = {RequestMethod.GET})
+    public void diff(@ApiParam(value = "旧版本资源地址", required = true) @RequestParam String oldUrl,
+                     @ApiParam(value = "新版本资源地址", required = true) @RequestParam String newUrl,
+                     @ApiParam(value = "报告格式，doc 或 html", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                     HttpServletResponse response) throws IOException {
+        writeReport(tableService.tableList(oldUrl), tableService.tableList(newUrl), "diff", format, response);
+    }
+
+    @ApiOperation(value = "比较两个 swagger json 文件，生成接口变更报告", notes = "", tags = {"Word"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。"), @ApiResponse(code = 400, message = "文档解析失败。")})
+    @RequestMapping(value = "/diffFilesToWord", method = {RequestMethod.POST})
+    public void diffFiles(@ApiParam("旧版本 swagger json file") @RequestPart("oldFile") MultipartFile oldFile,
+                          @ApiParam("新版本 swagger json file") @RequestPart("newFile") MultipartFile newFile,
+                          @ApiParam(value = "报告格式，doc 或 html", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                          HttpServletResponse response) throws IOException {
+        String name = StringUtils.removeEnd(StringUtils.defaultIfBlank(newFile.getOriginalFilename(), "toWord"), ".json") + "-diff";
+        writeReport(tableService.tableList(oldFile), tableService.tableList(newFile), name, format, response);
+    }
+
+    private void writeReport(Map<String, Object> before, Map<String, Object> after, String name, String format,
+                             HttpServletResponse response) throws IOException {
+        if (before.get("tableMap") == null || after.get("tableMap") == null) {
+            // WordService 解析失败时返回空结果，错误已记录在日志中
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "parse failed");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Object> result = diffService.diff(before, after);
+        log.info("diff {}: {} added, {} removed, {} modified, {} unchanged in {} ms", name, result.get("added"),
+                result.get("removed"), result.get("modified"), result.get("unchanged"), System.currentTimeMillis() - start);
+
+        if (HTML.equalsIgnoreCase(format)) {
+            response.setContentType("text/html;charset=utf-8");
+        } else {
+            response.setContentType("application/octet-stream;charset=utf-8");
+            response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(name + ".doc", "utf-8"));
+        }
+        Context context = new Context();
+        context.setVariables(result);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        springTemplateEngine.process(TEMPLATE, context, writer);
+        writer.flush();
+    }
+}
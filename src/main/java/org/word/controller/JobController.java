@@ -0,0 +1,121 @@
+package org.word.controller;
+
+import io.swagger.annotations.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.word.cache.RenderCache;
+import org.word.job.DocumentJob;
+import org.word.job.JobService;
+import org.word.service.RenderService;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 异步生成文档：提交任务后轮询状态，完成后下载
+ *
+ * @author cuixiuyin
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jobs")
+public class JobController {
+
+    /**
+     * 任务已满时建议客户端等待的秒数
+     */
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @Value("${swagger.url}")
+    private String swaggerUrl;
+
+    @Resource
+    private JobService jobService;
+
+    @Resource
+    private RenderService renderService;
+
+    @ApiOperation(value = "提交根据资源地址生成文档的任务", notes = "", tags = {"Job"})
+    @ApiResponses(value = {@ApiResponse(code = 202, message = "已提交。"), @ApiResponse(code = 429, message = "任务已满，请稍后重试。")})
+    @RequestMapping(method = {RequestMethod.POST})
+    public ResponseEntity<DocumentJob> submit(@ApiParam(value = "资源地址", required = false) @RequestParam(required = false) String url,
+                                              @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format) {
+        String target = StringUtils.defaultIfBlank(url, swaggerUrl);
+        try {
+            return accepted(jobService.submitUrl(target, format));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @ApiOperation(value = "提交根据 swagger json 文件生成文档的任务", notes = "", tags = {"Job"})
+    @ApiResponses(value = {@ApiResponse(code = 202, message = "已提交。"), @ApiResponse(code = 429, message = "任务已满，请稍后重试。")})
+    @RequestMapping(value = "/file", method = {RequestMethod.POST})
+    public ResponseEntity<DocumentJob> submitFile(@ApiParam("swagger json file") @Valid @RequestPart("jsonFile") MultipartFile jsonFile,
+                                                  @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format) throws IOException {
+        String fileName = jsonFile.getOriginalFilename();
+        fileName = fileName != null ? StringUtils.removeEnd(fileName, ".json") : "toWord";
+        try {
+            return accepted(jobService.submitFile(jsonFile, fileName, format));
+        } catch (RejectedExecutionException e) {
+            return tooManyRequests();
+        }
+    }
+
+    @ApiOperation(value = "查询任务状态和进度", notes = "", tags = {"Job"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。"), @ApiResponse(code = 404, message = "任务不存在或已过期。")})
+    @RequestMapping(value = "/{id}", method = {RequestMethod.GET})
+    public ResponseEntity<DocumentJob> status(@PathVariable String id) {
+        DocumentJob job = jobService.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @ApiOperation(value = "下载任务生成的文档", notes = "", tags = {"Job"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。"), @ApiResponse(code = 404, message = "任务不存在或已过期。"),
+            @ApiResponse(code = 409, message = "文档尚未生成。")})
+    @RequestMapping(value = "/{id}/download", method = {RequestMethod.GET})
+    public void download(@PathVariable String id, HttpServletResponse response) throws IOException {
+        DocumentJob job = jobService.get(id);
+        if (job == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (job.getStatus() != DocumentJob.Status.DONE || job.getFile() == null || !Files.exists(job.getFile())) {
+            response.sendError(HttpStatus.CONFLICT.value(), "job is " + job.getStatus());
+            return;
+        }
+        response.setContentType(renderService.contentType(job.getFormat()));
+        response.setHeader("Content-disposition", "attachment;filename="
+                + URLEncoder.encode(job.getFileName() + "." + renderService.extension(job.getFormat()), "utf-8"));
+        response.setContentLengthLong(Files.size(job.getFile()));
+        RenderCache.transferTo(job.getFile(), response.getOutputStream());
+    }
+
+    private static ResponseEntity<DocumentJob> accepted(DocumentJob job) {
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(job);
+    }
+
+    private static ResponseEntity<DocumentJob> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+    }
+}
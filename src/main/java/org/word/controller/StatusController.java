@@ -0,0 +1,32 @@
+package org.word.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.word.config.HttpClientStats;
+
+import javax.annotation.Resource;
+import java.util.Map;
+
+/**
+ * 运行状态
+ *
+ * @author cuixiuyin
+ */
+@RestController
+@RequestMapping("/status")
+public class StatusController {
+
+    @Resource
+    private HttpClientStats httpClientStats;
+
+    @ApiOperation(value = "获取 swagger 文档的连接池状态：使用中、空闲、等待的连接数和压缩响应数", notes = "", tags = {"Status"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
+    @RequestMapping(value = "/http-pool", method = {RequestMethod.GET})
+    public Map<String, Object> httpPool() {
+        return httpClientStats.snapshot();
+    }
+}
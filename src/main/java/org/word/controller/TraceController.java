@@ -0,0 +1,54 @@
+package org.word.controller;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.word.cache.TraceStore;
+import org.word.model.GenerationTrace;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 查看 trace=true 时记录的生成明细
+ *
+ * @author cuixiuyin
+ */
+@RestController
+@RequestMapping("/traces")
+public class TraceController {
+
+    @Resource
+    private TraceStore traceStore;
+
+    @ApiOperation(value = "最近的生成跟踪，按开始时间倒序", notes = "", tags = {"Trace"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
+    @RequestMapping(method = {RequestMethod.GET})
+    public List<Map<String, Object>> list() {
+        return traceStore.list().stream().map(trace -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", trace.getId());
+            summary.put("document", trace.getDocument());
+            summary.put("startedAt", trace.getStartedAt());
+            summary.put("durationMillis", trace.getDurationMillis());
+            return summary;
+        }).collect(Collectors.toList());
+    }
+
+    @ApiOperation(value = "单次生成的各阶段耗时、分配内存估算、耗时最多的接口和最大的 definition", notes = "", tags = {"Trace"})
+    @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。"), @ApiResponse(code = 404, message = "不存在或已过期。")})
+    @RequestMapping(value = "/{id}", method = {RequestMethod.GET})
+    public ResponseEntity<GenerationTrace> get(@ApiParam(value = "Server-Timing 响应头中的 trace id", required = true) @PathVariable String id) {
+        GenerationTrace trace = traceStore.get(id);
+        return trace == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(trace);
+    }
+}
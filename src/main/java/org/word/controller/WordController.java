@@ -11,8 +11,14 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.word.cache.RenderCache;
+import org.word.cache.TraceStore;
+import org.word.config.GenerationMetrics;
+import org.word.docx.DocxWriter;
+import org.word.model.GenerationContext;
+import org.word.model.GenerationTrace;
+import org.word.parser.OperationFilter;
+import org.word.service.RenderService;
 import org.word.service.WordService;
 
 import javax.annotation.Resource;
@@ -20,6 +26,8 @@ import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.*;
 import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,24 +43,44 @@ public class WordController {
     @Resource
     private WordService tableService;
     @Resource
-    private SpringTemplateEngine springTemplateEngine;
-
-    private String fileName = "toWord";
+    private RenderCache renderCache;
+    @Resource
+    private RenderService renderService;
+    @Resource
+    private GenerationMetrics metrics;
+    @Resource
+    private TraceStore traceStore;
 
     /**
      * 将 swagger json文件转换成 word文档并下载
      *
      * @param model
      * @param jsonFile 需要转换成 word 文档的swagger json文件
+     * @param tags     只生成这些 tag 下的接口，tag、路径、请求方式和废弃标记在解析时筛选，其余接口不处理
+     * @param trace    是否记录各阶段耗时，通过 Server-Timing 响应头返回，明细在 /traces/{id}
      * @param response
      * @return
      */
     @ApiOperation(value = "将 swagger json文件转换成 word文档并下载", notes = "", tags = {"Word"})
     @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
     @RequestMapping(value = "/fileToWord", method = {RequestMethod.POST})
-    public void getWord(Model model, @ApiParam("swagger json file") @Valid @RequestPart("jsonFile") MultipartFile jsonFile, HttpServletResponse response) {
-        generateModelData(model, jsonFile);
-        writeContentToResponse(model, response);
+    public void getWord(Model model, @ApiParam("swagger json file") @Valid @RequestPart("jsonFile") MultipartFile jsonFile,
+                        @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                        @ApiParam(value = "只生成这些 tag 下的接口，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> tags,
+                        @ApiParam(value = "不生成这些 tag 下的接口，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> excludeTags,
+                        @ApiParam(value = "只生成匹配的路径，Ant 风格如 /pet/**，不含 basePath，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> paths,
+                        @ApiParam(value = "只生成这些请求方式的接口，如 get,post", required = false) @RequestParam(required = false) List<String> methods,
+                        @ApiParam(value = "是否生成已废弃的接口", required = false) @RequestParam(required = false, defaultValue = "true") boolean deprecated,
+                        @ApiParam(value = "是否记录各阶段耗时", required = false) @RequestParam(required = false, defaultValue = "false") boolean trace,
+                        HttpServletResponse response) {
+        GenerationContext ctx = new GenerationContext(format);
+        beginTrace(ctx, trace, jsonFile.getOriginalFilename());
+        try {
+            generateModelData(ctx, model, jsonFile, new OperationFilter(tags, excludeTags, paths, methods, deprecated));
+            writeContentToResponse(ctx, model, response);
+        } finally {
+            endTrace(ctx);
+        }
     }
 
     /**
@@ -60,52 +88,135 @@ public class WordController {
      *
      * @param model
      * @param url      需要转换成 word 文档的资源地址
+     * @param tags     只生成这些 tag 下的接口，tag、路径、请求方式和废弃标记在解析时筛选，其余接口不处理
+     * @param trace    是否记录各阶段耗时，通过 Server-Timing 响应头返回，明细在 /traces/{id}
      * @param response
      */
     @ApiOperation(value = "将 swagger 文档一键下载为 doc 文档", notes = "", tags = {"Word"})
     @ApiResponses(value = {@ApiResponse(code = 200, message = "请求成功。")})
     @RequestMapping(value = "/downloadWord", method = {RequestMethod.GET})
-    public void word(Model model, @ApiParam(value = "资源地址", required = false) @RequestParam(required = false) String url, HttpServletResponse response) {
-        generateModelData(model, url, 0);
-        writeContentToResponse(model, response);
+    public void word(Model model, @ApiParam(value = "资源地址", required = false) @RequestParam(required = false) String url,
+                     @ApiParam(value = "文档格式，doc 或 docx", required = false) @RequestParam(required = false, defaultValue = "doc") String format,
+                     @ApiParam(value = "只生成这些 tag 下的接口，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> tags,
+                     @ApiParam(value = "不生成这些 tag 下的接口，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> excludeTags,
+                     @ApiParam(value = "只生成匹配的路径，Ant 风格如 /pet/**，不含 basePath，多个用逗号分隔", required = false) @RequestParam(required = false) List<String> paths,
+                     @ApiParam(value = "只生成这些请求方式的接口，如 get,post", required = false) @RequestParam(required = false) List<String> methods,
+                     @ApiParam(value = "是否生成已废弃的接口", required = false) @RequestParam(required = false, defaultValue = "true") boolean deprecated,
+                     @ApiParam(value = "是否记录各阶段耗时", required = false) @RequestParam(required = false, defaultValue = "false") boolean trace,
+                     HttpServletResponse response) {
+        GenerationContext ctx = new GenerationContext(format);
+        beginTrace(ctx, trace, StringUtils.defaultIfBlank(url, swaggerUrl));
+        try {
+            generateModelData(ctx, model, url, 0, new OperationFilter(tags, excludeTags, paths, methods, deprecated));
+            writeContentToResponse(ctx, model, response);
+        } finally {
+            endTrace(ctx);
+        }
     }
 
-    private void generateModelData(Model model, MultipartFile jsonFile) {
-        Map<String, Object> result = tableService.tableList(jsonFile);
-        fileName = jsonFile.getOriginalFilename();
+    private void beginTrace(GenerationContext ctx, boolean trace, String document) {
+        if (trace) {
+            ctx.setTrace(traceStore.create(document));
+            metrics.begin(ctx.getTrace());
+        }
+    }
 
-        if (fileName != null) {
-            fileName = fileName.replaceAll(".json", "");
-        } else {
-            fileName = "toWord";
+    private void endTrace(GenerationContext ctx) {
+        if (ctx.getTrace() != null) {
+            metrics.end(ctx.getTrace());
         }
+    }
 
-        model.addAttribute("url", "http://");
-        model.addAttribute("download", 0);
-        model.addAllAttributes(result);
+    /**
+     * 开始写出响应体前返回已完成阶段的耗时，渲染和写出的耗时只在 /traces/{id} 中
+     */
+    private static void setServerTiming(GenerationContext ctx, HttpServletResponse response) {
+        GenerationTrace trace = ctx.getTrace();
+        if (trace != null) {
+            response.setHeader("Server-Timing", trace.serverTiming());
+        }
+    }
+
+    private void generateModelData(GenerationContext ctx, Model model, MultipartFile jsonFile, OperationFilter filter) {
+        Map<String, Object> result = tableService.tableList(jsonFile, filter);
+        ctx.setFileNameFromUpload(jsonFile.getOriginalFilename());
+        ctx.setUrl("http://");
+        ctx.setDownload(0);
+        addAttributes(ctx, model, result);
     }
 
-    private void generateModelData(Model model, String url, Integer download) {
-        url = StringUtils.defaultIfBlank(url, swaggerUrl);
-        Map<String, Object> result = tableService.tableList(url);
-        model.addAttribute("url", url);
-        model.addAttribute("download", download);
+    private void generateModelData(GenerationContext ctx, Model model, String url, Integer download, OperationFilter filter) {
+        ctx.setUrl(StringUtils.defaultIfBlank(url, swaggerUrl));
+        ctx.setDownload(download);
+        Map<String, Object> result = tableService.tableList(ctx.getUrl(), filter);
+        addAttributes(ctx, model, result);
+    }
+
+    private static void addAttributes(GenerationContext ctx, Model model, Map<String, Object> result) {
+        model.addAttribute("url", ctx.getUrl());
+        model.addAttribute("download", ctx.getDownload());
         model.addAllAttributes(result);
     }
 
-    private void writeContentToResponse(Model model, HttpServletResponse response) {
-        Context context = new Context();
-        context.setVariables(model.asMap());
-        String content = springTemplateEngine.process("word", context);
+    private void writeContentToResponse(GenerationContext ctx, Model model, HttpServletResponse response) {
+        if (DocxWriter.FORMAT.equalsIgnoreCase(ctx.getFormat())) {
+            writeDocxToResponse(ctx, model, response);
+            return;
+        }
         response.setContentType("application/octet-stream;charset=utf-8");
         response.setCharacterEncoding("utf-8");
-        try (BufferedOutputStream bos = new BufferedOutputStream(response.getOutputStream())) {
-            response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(fileName + ".doc", "utf-8"));
-            byte[] bytes = content.getBytes();
-            bos.write(bytes, 0, bytes.length);
-            bos.flush();
+        try {
+            response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(ctx.getFileName() + ".doc", "utf-8"));
+            Object specHash = model.asMap().get("specHash");
+            if (renderCache.isEnabled() && specHash != null) {
+                // 相同文档、模板和参数直接返回已渲染好的文件
+                String extension = renderService.extension(ctx.getFormat());
+                String key = RenderCache.key(specHash.toString(), extension, ctx.getUrl(), ctx.getDownload());
+                boolean[] rendered = {false};
+                try (FileChannel file = renderCache.getOrRender(key, os -> {
+                    rendered[0] = true;
+                    renderService.render(model.asMap(), ctx.getFormat(), os);
+                })) {
+                    metrics.cache("render", !rendered[0]);
+                    long size = file.size();
+                    if (!rendered[0]) {
+                        // 渲染时 RenderService 已经统计过
+                        metrics.output(extension, size);
+                    }
+                    response.setContentLengthLong(size);
+                    setServerTiming(ctx, response);
+                    long start = metrics.start();
+                    RenderCache.transferTo(file, response.getOutputStream());
+                    metrics.stop(GenerationMetrics.WRITE, start);
+                }
+                return;
+            }
+            setServerTiming(ctx, response);
+            renderService.render(model.asMap(), ctx.getFormat(), response.getOutputStream());
+            long start = metrics.start();
+            response.flushBuffer();
+            metrics.stop(GenerationMetrics.WRITE, start);
+        } catch (IOException e) {
+            log.error("write document error", e);
+        }
+    }
+
+    /**
+     * 输出 .docx，边生成边写出
+     */
+    private void writeDocxToResponse(GenerationContext ctx, Model model, HttpServletResponse response) {
+        response.setContentType(renderService.contentType(DocxWriter.FORMAT));
+        try {
+            response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(ctx.getFileName() + ".docx", "utf-8"));
+            setServerTiming(ctx, response);
+            OutputStream os = new BufferedOutputStream(response.getOutputStream());
+            renderService.render(model.asMap(), DocxWriter.FORMAT, os);
+            long start = metrics.start();
+            os.flush();
+            response.flushBuffer();
+            metrics.stop(GenerationMetrics.WRITE, start);
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("write document error", e);
         }
     }
 }
@@ -0,0 +1,500 @@
+package org.word.docx;
+
+import org.apache.commons.lang3.StringUtils;
+import org.word.model.ModelAttr;
+import org.word.model.Request;
+import org.word.model.Response;
+import org.word.model.Table;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 生成 .docx（WordprocessingML）文档
+ * <p>
+ * 内容与 word.html 模板一致。document.xml 用 XMLStreamWriter 直接写入 ZipOutputStream，
+ * 不构建 DOM，也不在内存中保存整个文档。
+ *
+ * @author cuixiuyin
+ */
+public class DocxWriter {
+
+    public static final String FORMAT = "docx";
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final String XML = "http://www.w3.org/XML/1998/namespace";
+
+    private static final String HEADER_FILL = "64D8CF";
+
+    /**
+     * 列宽（twip），与模板中的 25% / 20% / 15% / 40% 对应，A4 纸去掉左右页边距共 9638
+     */
+    private static final int[] COLUMNS = {2410, 1928, 1446, 3854};
+
+    private static final int DEFAULT_MAX_DEPTH = 10;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_TYPES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+            + "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>"
+            + "</Types>";
+
+    private static final String RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>"
+            + "</Relationships>";
+
+    private static final String DOCUMENT_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+            + "</Relationships>";
+
+    private static final String STYLES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<w:styles xmlns:w=\"" + W + "\">"
+            + "<w:docDefaults><w:rPrDefault><w:rPr>"
+            + "<w:rFonts w:ascii=\"Arial\" w:hAnsi=\"Arial\" w:eastAsia=\"Microsoft YaHei\" w:cs=\"Arial\"/>"
+            + "<w:sz w:val=\"21\"/><w:szCs w:val=\"21\"/><w:lang w:val=\"en-US\" w:eastAsia=\"zh-CN\"/>"
+            + "</w:rPr></w:rPrDefault>"
+            + "<w:pPrDefault><w:pPr><w:spacing w:after=\"0\" w:line=\"276\" w:lineRule=\"auto\"/></w:pPr></w:pPrDefault>"
+            + "</w:docDefaults>"
+            + "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Title\"><w:name w:val=\"Title\"/><w:basedOn w:val=\"Normal\"/>"
+            + "<w:pPr><w:jc w:val=\"center\"/><w:spacing w:before=\"240\" w:after=\"240\"/></w:pPr>"
+            + "<w:rPr><w:sz w:val=\"64\"/><w:szCs w:val=\"64\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Heading1\"><w:name w:val=\"heading 1\"/><w:basedOn w:val=\"Normal\"/>"
+            + "<w:pPr><w:keepNext/><w:spacing w:before=\"360\" w:after=\"120\"/><w:outlineLvl w:val=\"0\"/></w:pPr>"
+            + "<w:rPr><w:b/><w:sz w:val=\"32\"/><w:szCs w:val=\"32\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"Heading2\"><w:name w:val=\"heading 2\"/><w:basedOn w:val=\"Normal\"/>"
+            + "<w:pPr><w:keepNext/><w:spacing w:before=\"240\" w:after=\"120\"/><w:outlineLvl w:val=\"1\"/></w:pPr>"
+            + "<w:rPr><w:sz w:val=\"28\"/><w:szCs w:val=\"28\"/></w:rPr></w:style>"
+            + "<w:style w:type=\"table\" w:styleId=\"ApiTable\"><w:name w:val=\"Api Table\"/>"
+            + "<w:tblPr><w:tblBorders>"
+            + "<w:top w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "<w:left w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "<w:bottom w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "<w:right w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "<w:insideH w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "<w:insideV w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>"
+            + "</w:tblBorders>"
+            + "<w:tblCellMar><w:top w:w=\"60\" w:type=\"dxa\"/><w:left w:w=\"150\" w:type=\"dxa\"/>"
+            + "<w:bottom w:w=\"60\" w:type=\"dxa\"/><w:right w:w=\"100\" w:type=\"dxa\"/></w:tblCellMar>"
+            + "</w:tblPr></w:style>"
+            + "</w:styles>";
+
+    private final ZipOutputStream zip;
+
+    private XMLStreamWriter xml;
+
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+
+    /**
+     * @param os 输出流，写完后不会关闭
+     */
+    public DocxWriter(OutputStream os) {
+        // 写完后关闭 zip 以立即释放 Deflater 的本地内存，调用方的流只 flush 不关闭
+        this.zip = new ZipOutputStream(new NonClosingOutputStream(os), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写出整个文档
+     *
+     * @param model WordService 返回的结果，包含 info、tableMap、maxDepth
+     */
+    @SuppressWarnings("unchecked")
+    public void write(Map<String, Object> model) throws IOException {
+        if (model.get("maxDepth") instanceof Integer) {
+            maxDepth = (Integer) model.get("maxDepth");
+        }
+        try {
+            writeEntries(model);
+        } finally {
+            zip.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeEntries(Map<String, Object> model) throws IOException {
+        putEntry("[Content_Types].xml", CONTENT_TYPES);
+        putEntry("_rels/.rels", RELS);
+        putEntry("word/_rels/document.xml.rels", DOCUMENT_RELS);
+        putEntry("word/styles.xml", STYLES);
+
+        zip.putNextEntry(new ZipEntry("word/document.xml"));
+        // XMLStreamWriter 的写入粒度很小，直接写给 Deflater 开销很大
+        BufferedOutputStream buffer = new BufferedOutputStream(zip, BUFFER_SIZE);
+        try {
+            xml = XMLOutputFactory.newInstance().createXMLStreamWriter(buffer, "UTF-8");
+            writeDocument((Map<String, Object>) model.get("info"), (Map<String, List<Table>>) model.get("tableMap"));
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        buffer.flush();
+        zip.closeEntry();
+    }
+
+    private void putEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void writeDocument(Map<String, Object> info, Map<String, List<Table>> tableMap) throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.setPrefix("w", W);
+        start("document");
+        xml.writeNamespace("w", W);
+        start("body");
+
+        if (info != null) {
+            paragraph("Title", info.get("title") + "（" + info.get("version") + "）");
+        }
+        if (tableMap != null) {
+            for (Map.Entry<String, List<Table>> entry : tableMap.entrySet()) {
+                paragraph("Heading1", entry.getKey());
+                int count = 0;
+                for (Table table : entry.getValue()) {
+                    paragraph("Heading2", ++count + "）" + table.getTag());
+                    writeTable(table);
+                }
+            }
+        }
+
+        start("sectPr");
+        empty("pgSz", "w", "11906", "h", "16838");
+        empty("pgMar", "top", "1440", "right", "1134", "bottom", "1440", "left", "1134",
+                "header", "851", "footer", "992", "gutter", "0");
+        end();
+        end();
+        end();
+        xml.writeEndDocument();
+    }
+
+    private void writeTable(Table table) throws XMLStreamException {
+        start("tbl");
+        start("tblPr");
+        empty("tblStyle", "val", "ApiTable");
+        empty("tblW", "w", "5000", "type", "pct");
+        empty("tblLayout", "type", "fixed");
+        end();
+        start("tblGrid");
+        for (int width : COLUMNS) {
+            empty("gridCol", "w", String.valueOf(width));
+        }
+        end();
+
+        headerRow("接口详情");
+        row(cell("接口描述"), cell(table.getDescription(), 3));
+        row(cell("URL"), cell(table.getUrl(), 3));
+        row(cell("请求方式"), cell(StringUtils.upperCase(table.getRequestType()), 3));
+        row(cell("请求类型"), cell(table.getRequestForm(), 3));
+        row(cell("返回类型"), cell(table.getResponseForm(), 3));
+
+        row(header("参数名"), header("数据类型"), header("是否必填"), header("说明"));
+        writeRequests("PATH", table.getPathList(), true);
+        writeRequests("QUERY", table.getQueryList(), true);
+        writeRequests("BODY", table.getBodyList(), false);
+
+        row(header("状态码"), header("描述", 2), header("说明"));
+        if (table.getResponseList() != null) {
+            for (Response response : table.getResponseList()) {
+                row(cell(response.getName()), cell(response.getDescription(), 2), cell(response.getRemark()));
+            }
+        }
+
+        row(header("返回属性名"), header("类型", 2), header("说明"));
+        if (table.getModelAttr() != null) {
+            writeResponseProperties(table.getModelAttr().getProperties(), "", 1);
+        }
+
+        headerRow("示例");
+        row(header("请求参数"), code(table.getRequestParam(), 3));
+        row(header("返回值"), code(table.getResponseParam(), 3));
+        end();
+    }
+
+    /**
+     * @param numbered 是否在参数名前加序号，BODY 中的 body 参数本身不输出，只输出其属性
+     */
+    private void writeRequests(String title, List<Request> requests, boolean numbered) throws XMLStreamException {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        headerRow(title);
+        int count = 0;
+        for (Request request : requests) {
+            count++;
+            if (numbered || !"body".equals(request.getType())) {
+                row(cell(count + "." + request.getName()), cell(request.getType()),
+                        cell(Boolean.TRUE.equals(request.getRequire()) ? "是" : "否"), cell(request.getRemark()));
+            }
+            if (request.getModelAttr() != null) {
+                writeRequestProperties(request.getModelAttr().getProperties(), numbered ? count + "." : "", 1);
+            }
+        }
+    }
+
+    private void writeRequestProperties(List<ModelAttr> properties, String prefix, int level) throws XMLStreamException {
+        if (properties == null) {
+            return;
+        }
+        int count = 0;
+        for (ModelAttr p : properties) {
+            String number = prefix + ++count + ".";
+            row(indented(number + p.getName(), level), cell(p.getType()),
+                    cell(Boolean.TRUE.equals(p.getRequire()) ? "是" : "否"), cell(p.getDescription()));
+            if (p.getSeeClass() != null) {
+                seeRow(p.getSeeClass(), level + 1);
+            }
+            if (p.getProperties() != null && !p.getProperties().isEmpty() && level < maxDepth) {
+                writeRequestProperties(p.getProperties(), number, level + 1);
+            }
+        }
+    }
+
+    private void writeResponseProperties(List<ModelAttr> properties, String prefix, int level) throws XMLStreamException {
+        if (properties == null) {
+            return;
+        }
+        int count = 0;
+        for (ModelAttr p : properties) {
+            String number = prefix + ++count + ".";
+            row(indented(number + p.getName(), level), cell(p.getType(), 2), cell(p.getDescription()));
+            if (p.getSeeClass() != null) {
+                seeRow(p.getSeeClass(), level + 1);
+            }
+            if (p.getProperties() != null && !p.getProperties().isEmpty() && level < maxDepth) {
+                writeResponseProperties(p.getProperties(), number, level + 1);
+            }
+        }
+    }
+
+    /**
+     * 同一接口中已经展开过的类型只输出一行“见 类名”
+     */
+    private void seeRow(String className, int level) throws XMLStreamException {
+        Cell cell = indented("见 " + className, level);
+        cell.span = COLUMNS.length;
+        row(cell);
+    }
+
+    // ------------------------------------------------------------------ 单元格
+
+    /**
+     * 单元格内容，写出时才生成 XML
+     */
+    private static class Cell {
+
+        private String text;
+
+        private int span = 1;
+
+        private boolean header;
+
+        private boolean code;
+
+        private int indent;
+    }
+
+    private static Cell cell(String text) {
+        return cell(text, 1);
+    }
+
+    private static Cell cell(String text, int span) {
+        Cell cell = new Cell();
+        cell.text = text;
+        cell.span = span;
+        return cell;
+    }
+
+    private static Cell header(String text) {
+        return header(text, 1);
+    }
+
+    private static Cell header(String text, int span) {
+        Cell cell = cell(text, span);
+        cell.header = true;
+        return cell;
+    }
+
+    private static Cell code(String text, int span) {
+        Cell cell = cell(text, span);
+        cell.code = true;
+        return cell;
+    }
+
+    private static Cell indented(String text, int level) {
+        Cell cell = cell(text);
+        cell.indent = level - 1;
+        return cell;
+    }
+
+    private void headerRow(String text) throws XMLStreamException {
+        row(header(text, COLUMNS.length));
+    }
+
+    private void row(Cell... cells) throws XMLStreamException {
+        start("tr");
+        int column = 0;
+        for (Cell cell : cells) {
+            int width = 0;
+            for (int i = column; i < column + cell.span && i < COLUMNS.length; i++) {
+                width += COLUMNS[i];
+            }
+            column += cell.span;
+
+            start("tc");
+            start("tcPr");
+            empty("tcW", "w", String.valueOf(width), "type", "dxa");
+            if (cell.span > 1) {
+                empty("gridSpan", "val", String.valueOf(cell.span));
+            }
+            if (cell.header) {
+                empty("shd", "val", "clear", "color", "auto", "fill", HEADER_FILL);
+            }
+            end();
+
+            start("p");
+            if (cell.indent > 0) {
+                start("pPr");
+                empty("ind", "left", String.valueOf(cell.indent * 150));
+                end();
+            }
+            if (StringUtils.isNotEmpty(cell.text)) {
+                if (cell.code) {
+                    codeRuns(cell.text);
+                } else {
+                    run(cell.text, cell.header, false);
+                }
+            }
+            end();
+            end();
+        }
+        end();
+    }
+
+    // ------------------------------------------------------------------ 段落
+
+    private void paragraph(String style, String text) throws XMLStreamException {
+        start("p");
+        start("pPr");
+        empty("pStyle", "val", style);
+        end();
+        run(text, false, false);
+        end();
+    }
+
+    /**
+     * 多行的示例 JSON，每行之间用换行符分隔，保留行首空格
+     */
+    private void codeRuns(String text) throws XMLStreamException {
+        String[] lines = StringUtils.split(text.replace("\r\n", "\n"), '\n');
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                start("r");
+                empty("br");
+                end();
+            }
+            run(lines[i], false, true);
+        }
+    }
+
+    private void run(String text, boolean bold, boolean code) throws XMLStreamException {
+        start("r");
+        if (bold || code) {
+            start("rPr");
+            if (code) {
+                empty("rFonts", "ascii", "Consolas", "hAnsi", "Consolas", "cs", "Consolas");
+                empty("sz", "val", "18");
+                empty("szCs", "val", "18");
+            }
+            if (bold) {
+                empty("b");
+            }
+            end();
+        }
+        start("t");
+        xml.writeAttribute("xml", XML, "space", "preserve");
+        xml.writeCharacters(clean(text));
+        end();
+        end();
+    }
+
+    /**
+     * 去掉 XML 1.0 中不允许出现的控制字符
+     */
+    private static String clean(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean valid = c >= 0x20 ? c != 0xFFFE && c != 0xFFFF : c == '\t' || c == '\n' || c == '\r';
+            if (!valid && sb == null) {
+                sb = new StringBuilder(text.length());
+                sb.append(text, 0, i);
+            } else if (valid && sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    // ------------------------------------------------------------------ XML
+
+    private void start(String name) throws XMLStreamException {
+        xml.writeStartElement("w", name, W);
+    }
+
+    private void end() throws XMLStreamException {
+        xml.writeEndElement();
+    }
+
+    /**
+     * @param attributes 属性名、属性值交替出现
+     */
+    private void empty(String name, String... attributes) throws XMLStreamException {
+        xml.writeEmptyElement("w", name, W);
+        for (int i = 0; i + 1 < attributes.length; i += 2) {
+            xml.writeAttribute("w", W, attributes[i], attributes[i + 1]);
+        }
+    }
+
+    /**
+     * close 时只 flush，不关闭调用方的流
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
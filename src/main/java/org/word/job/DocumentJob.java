@@ -0,0 +1,65 @@
+package org.word.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步生成文档的任务
+ *
+ * @author cuixiuyin
+ */
+@Data
+public class DocumentJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+
+    private final String fileName;
+
+    /**
+     * doc 或 docx
+     */
+    private final String format;
+
+    private volatile Status status = Status.QUEUED;
+
+    /**
+     * 已解析的接口数
+     */
+    private final AtomicLong operations = new AtomicLong();
+
+    /**
+     * 已写出的文档字节数
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    private volatile String error;
+
+    private final long createTime = System.currentTimeMillis();
+
+    private volatile long finishTime;
+
+    @JsonIgnore
+    private volatile Path file;
+
+    /**
+     * 结束任务，status 最后写入，看到已结束时 finishTime 和 error 已可见
+     *
+     * @param status DONE 或 FAILED
+     */
+    public void finish(Status status, String error) {
+        this.error = error;
+        this.finishTime = System.currentTimeMillis();
+        this.status = status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
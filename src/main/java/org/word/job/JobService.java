@@ -0,0 +1,244 @@
+package org.word.job;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.word.service.RenderService;
+import org.word.service.WordService;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步生成文档
+ * <p>
+ * 任务在固定大小的线程池中执行，排队的任务数超过 queue-capacity 时拒绝提交。
+ * 生成的文档写到磁盘，完成 ttl-minutes 分钟后删除，每 purge-interval-seconds 秒检查一次。
+ *
+ * @author cuixiuyin
+ */
+@Slf4j
+@Component
+public class JobService {
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService purger;
+
+    private final Map<String, DocumentJob> jobs = new ConcurrentHashMap<>();
+
+    private final Path dir;
+
+    private final long ttlMillis;
+
+    @Resource
+    private WordService wordService;
+
+    @Resource
+    private RenderService renderService;
+
+    public JobService(@Value("${swagger.job.workers:2}") int workers,
+                      @Value("${swagger.job.queue-capacity:16}") int queueCapacity,
+                      @Value("${swagger.job.dir:${java.io.tmpdir}/swagger2word-jobs}") String dir,
+                      @Value("${swagger.job.ttl-minutes:30}") long ttlMinutes,
+                      @Value("${swagger.job.purge-interval-seconds:60}") long purgeIntervalSeconds) throws IOException {
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "swagger-job-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dir = Paths.get(dir);
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        Files.createDirectories(this.dir);
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "swagger-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 提交根据 url 生成文档的任务
+     *
+     * @throws RejectedExecutionException 线程池和队列都已满
+     */
+    public DocumentJob submitUrl(String url, String format) {
+        DocumentJob job = new DocumentJob(UUID.randomUUID().toString(), "toWord", format);
+        return submit(job, () -> render(job, wordService.tableList(url, job.getOperations()), url));
+    }
+
+    /**
+     * 提交根据上传的 swagger json 文件生成文档的任务
+     * <p>
+     * 上传的临时文件在请求结束后会被删除，提交前先复制到任务目录，任务结束后删除。
+     * 复制前先检查队列，已满时不写磁盘。
+     *
+     * @throws RejectedExecutionException 线程池和队列都已满
+     */
+    public DocumentJob submitFile(MultipartFile jsonFile, String fileName, String format) throws IOException {
+        checkCapacity();
+        DocumentJob job = new DocumentJob(UUID.randomUUID().toString(), fileName, format);
+        Path spec = dir.resolve(job.getId() + ".json");
+        try (InputStream in = jsonFile.getInputStream()) {
+            Files.copy(in, spec);
+        }
+        try {
+            return submit(job, () -> {
+                try {
+                    render(job, wordService.tableListFromFile(spec, job.getOperations()), "http://");
+                } finally {
+                    Files.deleteIfExists(spec);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(spec);
+            throw e;
+        }
+    }
+
+    public DocumentJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * 提前判断是否会被拒绝，并发提交时仍可能在 execute 时被拒绝
+     */
+    private void checkCapacity() {
+        if (executor.getActiveCount() >= executor.getMaximumPoolSize() && executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("job queue is full");
+        }
+    }
+
+    private DocumentJob submit(DocumentJob job, Task task) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    private void run(DocumentJob job, Task task) {
+        job.setStatus(DocumentJob.Status.RUNNING);
+        try {
+            task.run();
+            job.finish(DocumentJob.Status.DONE, null);
+        } catch (Exception e) {
+            log.error("job {} failed", job.getId(), e);
+            job.finish(DocumentJob.Status.FAILED, e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+        }
+    }
+
+    private void render(DocumentJob job, Map<String, Object> result, String url) throws IOException {
+        if (result.get("tableMap") == null) {
+            // WordService 解析失败时返回空结果，错误已记录在日志中
+            throw new IOException("parse failed");
+        }
+        Map<String, Object> model = new HashMap<>(result);
+        model.put("url", url);
+        model.put("download", 0);
+
+        Path file = dir.resolve(job.getId() + "." + renderService.extension(job.getFormat()));
+        try (OutputStream os = new BufferedOutputStream(new CountingOutputStream(Files.newOutputStream(file), job))) {
+            renderService.render(model, job.getFormat(), os);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        job.setFile(file);
+    }
+
+    /**
+     * 删除过期的任务和文档
+     */
+    private void purgeExpired() {
+        long expireBefore = System.currentTimeMillis() - ttlMillis;
+        Iterator<DocumentJob> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            DocumentJob job = it.next();
+            if (job.isFinished() && job.getFinishTime() < expireBefore) {
+                it.remove();
+                delete(job);
+            }
+        }
+    }
+
+    private void delete(DocumentJob job) {
+        try {
+            // 未执行的上传任务
+            Files.deleteIfExists(dir.resolve(job.getId() + ".json"));
+        } catch (IOException e) {
+            log.warn("delete job spec {} failed", job.getId(), e);
+        }
+        if (job.getFile() != null) {
+            try {
+                Files.deleteIfExists(job.getFile());
+            } catch (IOException e) {
+                log.warn("delete job file {} failed", job.getFile(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+        executor.shutdownNow();
+        jobs.values().forEach(this::delete);
+    }
+
+    private interface Task {
+
+        void run() throws IOException;
+    }
+
+    /**
+     * 统计写出的字节数
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final DocumentJob job;
+
+        private CountingOutputStream(OutputStream out, DocumentJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.getBytes().incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.getBytes().addAndGet(len);
+        }
+    }
+}
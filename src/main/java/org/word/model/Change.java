@@ -0,0 +1,37 @@
+package org.word.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 接口中的一处变更
+ *
+ * @author cuixiuyin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Change implements Serializable {
+
+    /**
+     * 变更位置，如 请求参数、返回码、返回属性
+     */
+    private String location;
+
+    /**
+     * 参数名、返回码或属性路径，嵌套属性以 . 分隔
+     */
+    private String name;
+
+    /**
+     * 新增、删除或修改
+     */
+    private String kind;
+
+    private String before;
+
+    private String after;
+}
@@ -0,0 +1,53 @@
+package org.word.model;
+
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 单次文档生成的上下文
+ * <p>
+ * 每个请求新建一个，在解析、渲染和输出之间传递，不在请求之间共享，因此不需要加锁。
+ *
+ * @author cuixiuyin
+ */
+@Data
+public class GenerationContext {
+
+    public static final String DEFAULT_FILE_NAME = "toWord";
+
+    /**
+     * 下载的文件名，不含扩展名
+     */
+    private String fileName = DEFAULT_FILE_NAME;
+
+    /**
+     * 文档格式，doc 或 docx
+     */
+    private String format;
+
+    /**
+     * 模板中的 url 参数
+     */
+    private String url;
+
+    /**
+     * 是否显示下载按钮，1 显示
+     */
+    private Integer download;
+
+    /**
+     * 请求 trace=true 时记录各阶段耗时，否则为 null
+     */
+    private GenerationTrace trace;
+
+    public GenerationContext(String format) {
+        this.format = format;
+    }
+
+    /**
+     * 上传文件名去掉 .json 后作为下载的文件名
+     */
+    public void setFileNameFromUpload(String originalFilename) {
+        this.fileName = originalFilename == null ? DEFAULT_FILE_NAME : StringUtils.removeEnd(originalFilename, ".json");
+    }
+}
@@ -0,0 +1,249 @@
+package org.word.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次文档生成的耗时明细
+ * <p>
+ * 记录各阶段的次数和耗时、分配内存的估算，以及耗时最多的接口和展开后最大的 definition。
+ * 接口在多个线程中并行处理，operation、example 阶段的耗时为各线程之和，可能大于总耗时。
+ *
+ * @author cuixiuyin
+ */
+public class GenerationTrace {
+
+    private static final Comparator<OperationTrace> BY_NANOS = Comparator.comparingLong(operation -> operation.nanos);
+
+    private static final Comparator<DefinitionTrace> BY_NODES = Comparator.comparingLong(DefinitionTrace::getNodes);
+
+    private final String id;
+
+    private final String document;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 保留的接口和 definition 数量
+     */
+    private final int top;
+
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+
+    /**
+     * 耗时最少的在堆顶，超过 top 时移除
+     */
+    private final PriorityQueue<OperationTrace> operations = new PriorityQueue<>(BY_NANOS);
+
+    private List<DefinitionTrace> definitions = new ArrayList<>();
+
+    private long allocatedBytes;
+
+    private long requestAllocated;
+
+    private long durationNanos = -1;
+
+    public GenerationTrace(String id, String document, int top) {
+        this.id = id;
+        this.document = document;
+        this.top = top;
+    }
+
+    /**
+     * @param allocated 请求线程当前已分配的字节数
+     */
+    public synchronized void start(long allocated) {
+        this.requestAllocated = allocated;
+    }
+
+    /**
+     * @param allocated 请求线程当前已分配的字节数
+     */
+    public synchronized void finish(long allocated) {
+        this.allocatedBytes += allocated - requestAllocated;
+        this.durationNanos = System.nanoTime() - startNanos;
+    }
+
+    public synchronized void stage(String stage, long nanos) {
+        long[] stat = stages.computeIfAbsent(stage, key -> new long[2]);
+        stat[0]++;
+        stat[1] += nanos;
+    }
+
+    /**
+     * @param allocated 处理该接口的线程分配的字节数
+     */
+    public synchronized void operation(String name, long nanos, long allocated) {
+        this.allocatedBytes += allocated;
+        operations.add(new OperationTrace(name, nanos, allocated));
+        if (operations.size() > top) {
+            operations.poll();
+        }
+    }
+
+    /**
+     * 按展开后的属性数统计 definition，展开层数与生成文档时一致
+     *
+     * @param models   $ref -> ModelAttr
+     * @param maxDepth 最大展开层数
+     */
+    public void definitions(Map<String, ModelAttr> models, int maxDepth) {
+        // key 为 ModelAttr，值为各剩余层数下展开的属性数和层数，相同引用只计算一次
+        Map<ModelAttr, long[][]> memo = new IdentityHashMap<>();
+        PriorityQueue<DefinitionTrace> largest = new PriorityQueue<>(BY_NODES);
+        models.forEach((ref, model) -> {
+            long[] size = expand(model, maxDepth, maxDepth, memo);
+            largest.add(new DefinitionTrace(ref, (int) size[1], size[0]));
+            if (largest.size() > top) {
+                largest.poll();
+            }
+        });
+        List<DefinitionTrace> sorted = new ArrayList<>(largest);
+        sorted.sort(BY_NODES.reversed());
+        synchronized (this) {
+            this.definitions = sorted;
+        }
+    }
+
+    /**
+     * @return [属性数, 层数]
+     */
+    private static long[] expand(ModelAttr model, int depth, int maxDepth, Map<ModelAttr, long[][]> memo) {
+        long[][] sizes = memo.computeIfAbsent(model, key -> new long[maxDepth + 1][]);
+        if (sizes[depth] != null) {
+            return sizes[depth];
+        }
+        long nodes = 0;
+        long levels = 0;
+        if (depth > 0 && model.getProperties() != null) {
+            for (ModelAttr property : model.getProperties()) {
+                long[] child = expand(property, depth - 1, maxDepth, memo);
+                nodes += 1 + child[0];
+                levels = Math.max(levels, child[1]);
+            }
+            levels = model.getProperties().isEmpty() ? 0 : levels + 1;
+        }
+        sizes[depth] = new long[]{nodes, levels};
+        return sizes[depth];
+    }
+
+    /**
+     * Server-Timing 响应头：已完成的各阶段耗时和 trace id
+     */
+    public synchronized String serverTiming() {
+        StringBuilder header = new StringBuilder();
+        stages.forEach((stage, stat) -> {
+            header.append(stage).append(";dur=").append(millis(stat[1]));
+            if (stat[0] > 1) {
+                header.append(";desc=\"").append(stat[0]).append(" calls\"");
+            }
+            header.append(", ");
+        });
+        return header.append("trace;desc=\"").append(id).append('"').toString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * 未完成时为 null
+     */
+    public synchronized Double getDurationMillis() {
+        return durationNanos < 0 ? null : millis(durationNanos);
+    }
+
+    /**
+     * 请求线程和处理接口的线程分配的字节数，不含其他请求
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public synchronized Map<String, StageTrace> getStages() {
+        Map<String, StageTrace> result = new LinkedHashMap<>();
+        stages.forEach((stage, stat) -> result.put(stage, new StageTrace(stat[0], millis(stat[1]))));
+        return result;
+    }
+
+    /**
+     * 耗时最多的接口，按耗时倒序
+     */
+    public synchronized List<OperationTrace> getOperations() {
+        List<OperationTrace> result = new ArrayList<>(operations);
+        result.sort(BY_NANOS.reversed());
+        return result;
+    }
+
+    /**
+     * 展开后属性最多的 definition，按属性数倒序
+     */
+    public synchronized List<DefinitionTrace> getDefinitions() {
+        return definitions;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Data
+    public static class StageTrace {
+
+        private final long count;
+
+        private final double millis;
+    }
+
+    @Data
+    public static class OperationTrace {
+
+        /**
+         * 请求方式和路径
+         */
+        private final String name;
+
+        @JsonIgnore
+        private final long nanos;
+
+        private final long allocatedBytes;
+
+        public double getMillis() {
+            return millis(nanos);
+        }
+    }
+
+    @Data
+    public static class DefinitionTrace {
+
+        private final String name;
+
+        /**
+         * 展开的层数
+         */
+        private final int depth;
+
+        /**
+         * 展开后的属性数
+         */
+        private final long nodes;
+    }
+}
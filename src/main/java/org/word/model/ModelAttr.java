@@ -1,5 +1,6 @@
 package org.word.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 
@@ -37,6 +38,18 @@ public class ModelAttr implements Serializable {
 
 	public void setType(String type) {
 		this.type = type;
+		this.kind = null;
+	}
+
+	public TypeKind getKind() {
+		if (kind == null) {
+			kind = TypeKind.of(type);
+		}
+		return kind;
+	}
+
+	public void setKind(TypeKind kind) {
+		this.kind = kind;
 	}
 
 	public Boolean getRequire() {
@@ -63,6 +76,14 @@ public class ModelAttr implements Serializable {
 		this.properties = properties;
 	}
 
+	public String getSeeClass() {
+		return seeClass;
+	}
+
+	public void setSeeClass(String seeClass) {
+		this.seeClass = seeClass;
+	}
+
 	public boolean isCompleted() {
 		return isCompleted;
 	}
@@ -107,5 +128,16 @@ public class ModelAttr implements Serializable {
      */
     private boolean isCompleted = false;
 
+    /**
+     * 同一接口中已经展开过的引用类名，不为空时不再展开属性，只输出“见 类名”
+     */
+    private String seeClass;
+
     private Object example;
+
+    /**
+     * 示例值类型，由 type 得到
+     */
+    @JsonIgnore
+    private transient TypeKind kind;
 }
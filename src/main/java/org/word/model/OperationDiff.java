@@ -0,0 +1,47 @@
+package org.word.model;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 两个版本之间单个接口的差异
+ *
+ * @author cuixiuyin
+ */
+@Data
+public class OperationDiff implements Serializable {
+
+    public enum Status {
+        ADDED("新增"), REMOVED("删除"), MODIFIED("修改");
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private Status status;
+
+    /**
+     * 所属分组，删除的接口取旧版本的分组
+     */
+    private String title;
+
+    private String tag;
+
+    private String requestType;
+
+    private String url;
+
+    private String description;
+
+    private List<Change> changes = new ArrayList<>();
+}
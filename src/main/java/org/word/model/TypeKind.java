@@ -0,0 +1,52 @@
+package org.word.model;
+
+/**
+ * 示例值的类型，由展示类型（如 integer(int64)、array:Pet）得到
+ *
+ * @author cuixiuyin
+ */
+public enum TypeKind {
+
+    STRING,
+    DATE_TIME,
+    INTEGER,
+    NUMBER,
+    BOOLEAN,
+    FILE,
+    ARRAY,
+    OBJECT,
+    /**
+     * 其他类型，示例值为 null
+     */
+    OTHER;
+
+    public static TypeKind of(String type) {
+        if (type == null) {
+            return OTHER;
+        }
+        int pos = type.indexOf(':');
+        switch (pos == -1 ? type : type.substring(0, pos)) {
+            case "string":
+                return STRING;
+            case "string(date-time)":
+                return DATE_TIME;
+            case "integer":
+            case "integer(int64)":
+            case "integer(int32)":
+                return INTEGER;
+            case "number":
+                return NUMBER;
+            case "boolean":
+                return BOOLEAN;
+            case "file":
+                return FILE;
+            case "array":
+                return ARRAY;
+            case "body":
+            case "object":
+                return OBJECT;
+            default:
+                return OTHER;
+        }
+    }
+}
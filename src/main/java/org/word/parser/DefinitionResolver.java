@@ -0,0 +1,548 @@
+package org.word.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.word.model.ModelAttr;
+import org.word.utils.ClassType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * definitions 解析
+ * <p>
+ * 每个 #/definitions/*（OpenAPI 3 为 #/components/schemas/*）只构建一次 Schema、解析一次，
+ * 解析结果保存在 Schema 上，在各接口间共享，解析完成后不再修改；
+ * 引用了属性的 ModelAttr 直接共用被引用 definition 的属性列表。
+ * 解析过程中再次遇到尚未解析完的 definition 即为循环引用，该属性不再展开。
+ * 构建 Schema 时 $ref 即连接到被引用的 Schema，其他 $ref 按 JSON pointer 在文档中查找，首次遇到时构建。
+ * <p>
+ * ModelAttr 在首次使用时才解析，只生成部分接口时不解析未被引用的 definition。
+ * 循环引用中哪个属性不再展开取决于从哪个 definition 进入，构建时按 definitions 的顺序遍历引用关系，
+ * 记录每组循环引用最先进入的 definition，之后无论先用到哪个，都从该 definition 开始解析，
+ * 结果与按顺序全部解析时相同，也与接口的处理顺序无关。
+ *
+ * @author cuixiuyin
+ */
+@Slf4j
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class DefinitionResolver {
+
+    public static final String DEFINITIONS_PREFIX = "#/definitions/";
+
+    public static final String SCHEMAS_PREFIX = "#/components/schemas/";
+
+    private static final String DICTIONARY_KEY = "dictionary key (*)";
+
+    /**
+     * 除 paths 以外的文档内容
+     */
+    private final Map<String, Object> document;
+
+    /**
+     * $ref -> Schema，包括 definitions 和 components/schemas 下的所有 schema，构建后只读
+     */
+    private final Map<String, Schema> index = new LinkedHashMap<>(256);
+
+    /**
+     * 其他按 JSON pointer 查找到的 $ref -> Schema，不存在时为 empty
+     */
+    private final Map<String, Optional<Schema>> pointers = new HashMap<>();
+
+    /**
+     * 正在解析的 Schema，用于检测循环引用。同一组循环引用只由持有入口锁的线程加入和移除
+     */
+    private final Set<Schema> resolving = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * 循环引用中的 Schema -> 该组最先进入的 Schema，不在循环引用中或自身即为入口时不记录
+     */
+    private final Map<Schema, Schema> entries = new IdentityHashMap<>();
+
+    /**
+     * 循环引用中的 $ref -> 该组入口的 $ref，与 entries 对应
+     */
+    private final Map<String, String> entryRefs = new HashMap<>();
+
+    public DefinitionResolver(Map<String, Object> document) {
+        this.document = document;
+        List<Schema> refs = new ArrayList<>();
+        Map<String, Object> definitions = (Map<String, Object>) document.get("definitions");
+        if (definitions != null) {
+            definitions.forEach((name, schema) -> put(DEFINITIONS_PREFIX + name, schema, refs));
+        }
+        Map<String, Object> components = (Map<String, Object>) document.get("components");
+        if (components != null && components.get("schemas") != null) {
+            Map<String, Object> schemas = (Map<String, Object>) components.get("schemas");
+            schemas.forEach((name, schema) -> put(SCHEMAS_PREFIX + name, schema, refs));
+        }
+        link(refs);
+        indexReferences();
+    }
+
+    private void put(String ref, Object value, List<Schema> refs) {
+        Schema schema = Schema.of(value, false, refs);
+        if (schema != null) {
+            index.put(ref, schema);
+        }
+    }
+
+    /**
+     * 构建接口中内联的 schema
+     *
+     * @return value 不是对象时返回 null
+     */
+    public Schema schema(Object value) {
+        List<Schema> refs = new ArrayList<>();
+        Schema schema = Schema.of(value, false, refs);
+        link(refs);
+        return schema;
+    }
+
+    /**
+     * 取得 $ref 对应的 Schema
+     *
+     * @return 不存在时返回 null
+     */
+    public Schema schema(String ref) {
+        Schema schema = index.get(ref);
+        if (schema != null || ref == null || !ref.startsWith("#/")) {
+            return schema;
+        }
+        return pointer(ref);
+    }
+
+    private synchronized Schema pointer(String ref) {
+        Optional<Schema> schema = pointers.get(ref);
+        if (schema == null) {
+            List<Schema> refs = new ArrayList<>();
+            schema = Optional.ofNullable(Schema.of(lookup(ref), false, refs));
+            // 先放入再连接，引用自身的 schema 不会重复构建
+            pointers.put(ref, schema);
+            link(refs);
+        }
+        return schema.orElse(null);
+    }
+
+    private void link(List<Schema> refs) {
+        for (Schema schema : refs) {
+            Schema target = schema(schema.getRef());
+            if (target == null) {
+                log.warn("definition {} not found", schema.getRef());
+            }
+            schema.link(target);
+        }
+    }
+
+    /**
+     * 按 definitions 的顺序深度优先遍历引用关系，顺序与解析时一致，求出循环引用及其入口
+     */
+    private void indexReferences() {
+        ReferenceIndex references = new ReferenceIndex();
+        index.values().forEach(schema -> {
+            if (!references.order.containsKey(schema)) {
+                references.visit(schema);
+            }
+        });
+        Map<Schema, String> refs = new IdentityHashMap<>();
+        index.forEach((ref, schema) -> refs.put(schema, ref));
+        entries.forEach((member, entry) -> entryRefs.put(refs.get(member), refs.get(entry)));
+    }
+
+    /**
+     * 循环引用从入口开始解析，入口不同则断开的引用不同，入口由 definitions 的顺序决定
+     *
+     * @param ref 形如 #/definitions/Pet
+     * @return 所在循环引用入口的 $ref，不在循环引用中或自身即为入口时返回 null
+     */
+    public String entryOf(String ref) {
+        return entryRefs.get(ref);
+    }
+
+    /**
+     * 解析 definition 时依次解析的引用，与 resolveDefinition、resolveProperties 的顺序一致
+     */
+    private static void references(Schema definition, List<Schema> out) {
+        if (definition.getProperties() != null) {
+            definition.getProperties().values().forEach(property -> propertyReferences(property, out));
+        }
+        if (definition.getAdditionalProperties() != null) {
+            propertyReferences(definition.getAdditionalProperties(), out);
+        }
+        if (definition.getAllOf() != null) {
+            for (Schema c : definition.getAllOf()) {
+                if (c.getRef() != null) {
+                    addReference(c.getTarget(), out);
+                } else if (c.getProperties() != null) {
+                    c.getProperties().values().forEach(property -> propertyReferences(property, out));
+                }
+            }
+        }
+    }
+
+    private static void propertyReferences(Schema property, List<Schema> out) {
+        Schema attrRef = property.getAttrRef();
+        if (attrRef != null) {
+            addReference(attrRef.getTarget(), out);
+        } else if (property.getAdditionalProperties() != null) {
+            propertyReferences(property.getAdditionalProperties(), out);
+        }
+    }
+
+    private static void addReference(Schema target, List<Schema> out) {
+        if (target != null) {
+            out.add(target);
+        }
+    }
+
+    /**
+     * 求强连通分量（Tarjan），分量中最先访问的 Schema 即为按顺序解析时进入该组循环引用的 definition
+     */
+    private class ReferenceIndex {
+
+        /**
+         * Schema -> 访问顺序
+         */
+        private final Map<Schema, Integer> order = new IdentityHashMap<>();
+
+        /**
+         * Schema -> 能回到的最早访问顺序
+         */
+        private final Map<Schema, Integer> low = new IdentityHashMap<>();
+
+        private final Deque<Schema> stack = new ArrayDeque<>();
+
+        private final Set<Schema> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * 用显式栈遍历，definitions 之间的引用链很长时不会栈溢出
+         */
+        private void visit(Schema root) {
+            Deque<Frame> frames = new ArrayDeque<>();
+            frames.push(enter(root));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.next < frame.targets.size()) {
+                    Schema target = frame.targets.get(frame.next++);
+                    if (!order.containsKey(target)) {
+                        frames.push(enter(target));
+                    } else if (onStack.contains(target)) {
+                        // 仍在栈中，属于同一组循环引用
+                        low.put(frame.schema, Math.min(low.get(frame.schema), order.get(target)));
+                    }
+                    continue;
+                }
+                frames.pop();
+                leave(frame.schema);
+                if (!frames.isEmpty()) {
+                    Schema parent = frames.peek().schema;
+                    low.put(parent, Math.min(low.get(parent), low.get(frame.schema)));
+                }
+            }
+        }
+
+        private Frame enter(Schema schema) {
+            int index = order.size();
+            order.put(schema, index);
+            low.put(schema, index);
+            stack.push(schema);
+            onStack.add(schema);
+            List<Schema> targets = new ArrayList<>();
+            references(schema, targets);
+            return new Frame(schema, targets);
+        }
+
+        private void leave(Schema schema) {
+            if (!low.get(schema).equals(order.get(schema))) {
+                return;
+            }
+            Schema member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                if (member != schema) {
+                    entries.put(member, schema);
+                }
+            } while (member != schema);
+        }
+    }
+
+    private static class Frame {
+
+        private final Schema schema;
+
+        private final List<Schema> targets;
+
+        private int next;
+
+        private Frame(Schema schema, List<Schema> targets) {
+            this.schema = schema;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * definitions 和 components/schemas 的数量
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 已解析的 definitions
+     *
+     * @return $ref -> ModelAttr
+     */
+    public Map<String, ModelAttr> resolved() {
+        Map<String, ModelAttr> resolved = new LinkedHashMap<>();
+        index.forEach((ref, schema) -> {
+            if (schema.model != null) {
+                resolved.put(ref, schema.model);
+            }
+        });
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * 取得 $ref 对应的 ModelAttr，没有属性的 definition 返回空的 ModelAttr
+     *
+     * @return 不存在时返回 null
+     */
+    public ModelAttr get(String ref) {
+        return get(schema(ref));
+    }
+
+    /**
+     * 取得 Schema 对应的 ModelAttr，没有属性的 schema 返回空的 ModelAttr
+     *
+     * @param schema $ref 指向的 Schema，为 null 时返回 null
+     * @return 出现循环引用时返回 null
+     */
+    public ModelAttr get(Schema schema) {
+        if (schema == null) {
+            return null;
+        }
+        ModelAttr modeAttr = schema.model;
+        if (modeAttr == null) {
+            resolve(schema);
+            modeAttr = schema.model;
+        }
+        return modeAttr;
+    }
+
+    public ModelAttr getOrEmpty(String ref) {
+        return getOrEmpty(schema(ref));
+    }
+
+    public ModelAttr getOrEmpty(Schema schema) {
+        ModelAttr modeAttr = get(schema);
+        return modeAttr == null ? new ModelAttr() : modeAttr;
+    }
+
+    /**
+     * 解析单个 definition
+     *
+     * @param ref 形如 #/definitions/Pet
+     * @return 没有属性、不存在或出现循环引用时返回 null
+     */
+    public ModelAttr resolve(String ref) {
+        return resolve(schema(ref));
+    }
+
+    /**
+     * @return 没有属性、为 null 或出现循环引用时返回 null
+     */
+    public ModelAttr resolve(Schema schema) {
+        if (schema == null) {
+            return null;
+        }
+        ModelAttr modeAttr = schema.model;
+        if (modeAttr != null) {
+            return modeAttr.getProperties().isEmpty() ? null : modeAttr;
+        }
+        return doResolve(schema);
+    }
+
+    /**
+     * 按循环引用分组加锁，同一组由一个线程从入口开始解析，不同组可以由解析线程并行解析。
+     * 解析时只会进入所引用的组，组之间的引用没有环，嵌套加锁不会死锁
+     */
+    private ModelAttr doResolve(Schema definition) {
+        synchronized (entries.getOrDefault(definition, definition)) {
+            return resolveLocked(definition);
+        }
+    }
+
+    private ModelAttr resolveLocked(Schema definition) {
+        ModelAttr modeAttr = definition.model;
+        if (modeAttr != null) {
+            return modeAttr.getProperties().isEmpty() ? null : modeAttr;
+        }
+        if (resolving.contains(definition)) {
+            log.debug("circular reference {}", definition.getTitle());
+            return null;
+        }
+        Schema entry = entries.get(definition);
+        if (entry != null && entry.model == null && !resolving.contains(entry)) {
+            // 循环引用从入口开始解析，解析入口时会解析到同组的所有 definition
+            resolveLocked(entry);
+            if (definition.model != null) {
+                return definition.model.getProperties().isEmpty() ? null : definition.model;
+            }
+        }
+
+        resolving.add(definition);
+        try {
+            modeAttr = new ModelAttr();
+            modeAttr.setProperties(resolveDefinition(definition));
+            modeAttr.setClassName(StringUtils.defaultString(definition.getTitle()));
+            modeAttr.setDescription(StringUtils.defaultString(definition.getDescription()));
+            modeAttr.setExample(!modeAttr.getProperties().isEmpty() ? "#ref" : definition.getExample());
+            if (definition.getRequired() != null) {
+                modeAttr.setRequire(definition.getRequired());
+            }
+            if (modeAttr.getProperties().isEmpty()) {
+                // 没有属性的 definition 保持原样，不作为引用展开
+                modeAttr = new ModelAttr();
+            }
+            modeAttr.setCompleted(true);
+            definition.model = modeAttr;
+        } finally {
+            resolving.remove(definition);
+        }
+        return modeAttr.getProperties().isEmpty() ? null : modeAttr;
+    }
+
+    private List<ModelAttr> resolveDefinition(Schema definition) {
+        Map<String, Schema> modeProperties = new LinkedHashMap<>();
+        if (definition.getProperties() != null) {
+            modeProperties.putAll(definition.getProperties());
+        }
+        // map
+        if (definition.getAdditionalProperties() != null) {
+            modeProperties.put(DICTIONARY_KEY, definition.getAdditionalProperties());
+        }
+
+        List<ModelAttr> attrList = resolveProperties(modeProperties);
+        if (definition.getAllOf() != null) {
+            for (Schema c : definition.getAllOf()) {
+                if (c.getRef() != null) {
+                    ModelAttr refModel = resolve(c.getTarget());
+                    if (refModel != null) {
+                        refModel.getProperties().forEach(m -> attrList.add(copyOf(m)));
+                    }
+                } else if (c.getProperties() != null) {
+                    attrList.addAll(resolveProperties(c.getProperties()));
+                }
+            }
+        }
+
+        attrList.stream().filter(m -> definition.isRequired(m.getName())).forEach(m -> m.setRequire(true));
+        return Collections.unmodifiableList(attrList);
+    }
+
+    /**
+     * 解析属性列表，properties 可以是 definition 的属性，也可以是接口中内联的属性
+     *
+     * @param modeProperties 属性名 -> 属性定义
+     * @return 新建的属性列表，调用方可以修改
+     */
+    public List<ModelAttr> resolveProperties(Map<String, Schema> modeProperties) {
+        List<ModelAttr> attrList = new ArrayList<>();
+        if (modeProperties == null) {
+            return attrList;
+        }
+
+        //解析属性
+        for (Entry<String, Schema> mEntry : modeProperties.entrySet()) {
+            Schema property = mEntry.getValue();
+            ModelAttr child = new ModelAttr();
+            child.setName(mEntry.getKey());
+            // 展示类型和示例类型在构建 Schema 时已经确定
+            child.setType(property.getAttrType());
+            child.setKind(property.getAttrKind());
+
+            Schema attrRef = property.getAttrRef();
+            if (attrRef != null) {
+                ModelAttr refModel = resolve(attrRef.getTarget());
+                if (refModel != null) {
+                    child.setClassName(refName(attrRef.getRef()));
+                    child.setProperties(refModel.getProperties());
+                }
+            } else if (property.getAdditionalProperties() != null) {
+                child.setProperties(resolveProperties(Collections.singletonMap(DICTIONARY_KEY, property.getAdditionalProperties())));
+            }
+            child.setDescription(property.getDescription());
+            attrList.add(child);
+        }
+        return attrList;
+    }
+
+    /**
+     * 按 JSON pointer 查找文档中的对象，只支持文档内部引用（以 # 开头）
+     *
+     * @param ref 形如 #/components/parameters/id
+     * @return 不存在时返回 null
+     */
+    public Map<String, Object> lookup(String ref) {
+        if (ref == null || !ref.startsWith("#/")) {
+            return null;
+        }
+        Object node = document;
+        for (String token : StringUtils.split(ref.substring(2), '/')) {
+            token = unescape(token);
+            if (node instanceof Map) {
+                node = ((Map) node).get(token);
+            } else if (node instanceof List && StringUtils.isNumeric(token)) {
+                List list = (List) node;
+                int i = Integer.parseInt(token);
+                node = i < list.size() ? list.get(i) : null;
+            } else {
+                return null;
+            }
+        }
+        return ClassType.isMap(node) ? (Map<String, Object>) node : null;
+    }
+
+    /**
+     * 取 $ref 最后一段作为类名，例如 #/definitions/Pet 对应 Pet
+     */
+    public static String refName(String ref) {
+        if (!ref.startsWith("#/")) {
+            return ref;
+        }
+        return unescape(ref.substring(ref.lastIndexOf('/') + 1));
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+
+    /**
+     * 复制 ModelAttr，属性列表复制一份，修改副本不会影响共享的 definition
+     */
+    public static ModelAttr copyOf(ModelAttr source) {
+        ModelAttr copy = new ModelAttr();
+        copy.setClassName(source.getClassName());
+        copy.setName(source.getName());
+        copy.setType(source.getType());
+        copy.setRequire(source.getRequire());
+        copy.setDescription(source.getDescription());
+        copy.setExample(source.getExample());
+        copy.setCompleted(source.isCompleted());
+        copy.setSeeClass(source.getSeeClass());
+        copy.setProperties(new ArrayList<>(Objects.requireNonNull(source.getProperties())));
+        return copy;
+    }
+}
@@ -0,0 +1,106 @@
+package org.word.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 以只读方式映射到内存的本地文件
+ * <p>
+ * 文件内容不进入堆内存，由操作系统按需加载页面，多次转换同一文件时复用页缓存。
+ * 超过 2GB 的文件分段映射。映射在对象被回收后才会释放。
+ *
+ * @author cuixiuyin
+ */
+public class MappedFile {
+
+    private static final long REGION_SIZE = Integer.MAX_VALUE;
+
+    private final MappedByteBuffer[] regions;
+
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] regions, long size) {
+        this.regions = regions;
+        this.size = size;
+    }
+
+    public static MappedFile map(Path path) throws IOException {
+        // 映射建立后关闭 channel 不影响读取
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = i * REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+            }
+            return new MappedFile(regions, size);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 每次调用返回一个从文件开头读取的新流，多个流互不影响
+     */
+    public InputStream newInputStream() {
+        return new RegionInputStream();
+    }
+
+    private class RegionInputStream extends InputStream {
+
+        private int index;
+
+        private ByteBuffer current = regions.length == 0 ? null : regions[0].duplicate();
+
+        /**
+         * 当前分段已读完时切换到下一段，全部读完返回 false
+         */
+        private boolean ensureRemaining() {
+            while (current != null && !current.hasRemaining()) {
+                current = ++index < regions.length ? regions[index].duplicate() : null;
+            }
+            return current != null;
+        }
+
+        @Override
+        public int read() {
+            return ensureRemaining() ? current.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && ensureRemaining()) {
+                int step = (int) Math.min(n - skipped, current.remaining());
+                current.position(current.position() + step);
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return ensureRemaining() ? current.remaining() : 0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.word.parser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.word.utils.ClassType;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OpenAPI 3.x 转换
+ * <p>
+ * 把 OpenAPI 3 的路由转换成 swagger 2 的结构后沿用原有的处理逻辑：
+ * parameters 的 schema 展开为 type / format / items，
+ * requestBody 转为 in=body 的参数，响应的 content 取出 schema，
+ * 媒体类型合并到 consumes / produces。parameters、requestBody、responses 中的 $ref 按 JSON pointer 解析。
+ *
+ * @author cuixiuyin
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class OpenApi3Adapter {
+
+    public static final Set<String> HTTP_METHODS = new LinkedHashSet<>(
+            Arrays.asList("get", "put", "post", "delete", "options", "head", "patch", "trace"));
+
+    public static boolean isOpenApi3(Map<String, Object> document) {
+        Object version = document.get("openapi");
+        return version != null && version.toString().startsWith("3");
+    }
+
+    /**
+     * 取第一个 server 的路径作为 basePath
+     */
+    public static String basePath(Map<String, Object> document) {
+        List<Map<String, Object>> servers = (List<Map<String, Object>>) document.get("servers");
+        if (servers == null || servers.isEmpty() || servers.get(0).get("url") == null) {
+            return "";
+        }
+        String url = servers.get(0).get("url").toString();
+        try {
+            String path = URI.create(url).getPath();
+            return StringUtils.removeEnd(StringUtils.defaultString(path), "/");
+        } catch (IllegalArgumentException e) {
+            // 含有 {variable} 等无法解析的地址
+            return "";
+        }
+    }
+
+    /**
+     * 转换单个路由
+     *
+     * @param pathItem OpenAPI 3 的路由
+     * @param resolver 用于解析 $ref
+     * @return swagger 2 结构的路由
+     */
+    public static Map<String, Object> toSwagger2PathItem(Map<String, Object> pathItem, DefinitionResolver resolver) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (pathItem.get("parameters") != null) {
+            result.put("parameters", toSwagger2Parameters((List) pathItem.get("parameters"), resolver));
+        }
+        for (Map.Entry<String, Object> entry : pathItem.entrySet()) {
+            if (HTTP_METHODS.contains(entry.getKey()) && ClassType.isMap(entry.getValue())) {
+                result.put(entry.getKey(), toSwagger2Operation((Map<String, Object>) entry.getValue(), resolver));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toSwagger2Operation(Map<String, Object> operation, DefinitionResolver resolver) {
+        Map<String, Object> result = new LinkedHashMap<>(operation);
+        List<Map<String, Object>> parameters = toSwagger2Parameters((List) operation.get("parameters"), resolver);
+
+        // requestBody
+        Map<String, Object> requestBody = deref((Map<String, Object>) operation.get("requestBody"), resolver);
+        if (requestBody != null) {
+            Map<String, Object> content = (Map<String, Object>) requestBody.get("content");
+            if (content != null && !content.isEmpty()) {
+                result.putIfAbsent("consumes", new ArrayList<>(content.keySet()));
+                Map<String, Object> schema = schemaOf(content);
+                if (schema != null) {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("in", "body");
+                    body.put("name", "body");
+                    body.put("required", Boolean.TRUE.equals(requestBody.get("required")));
+                    body.put("description", requestBody.getOrDefault("description", ""));
+                    body.put("schema", schema);
+                    parameters.add(body);
+                }
+            }
+        }
+        result.put("parameters", parameters);
+
+        // responses
+        Map<String, Object> responses = new LinkedHashMap<>();
+        Set<String> produces = new LinkedHashSet<>();
+        Map<String, Object> original = (Map<String, Object>) operation.get("responses");
+        if (original != null) {
+            for (Map.Entry<String, Object> entry : original.entrySet()) {
+                Map<String, Object> response = deref((Map<String, Object>) entry.getValue(), resolver);
+                if (response == null) {
+                    continue;
+                }
+                Map<String, Object> converted = new LinkedHashMap<>();
+                converted.put("description", response.get("description"));
+                Map<String, Object> content = (Map<String, Object>) response.get("content");
+                if (content != null && !content.isEmpty()) {
+                    produces.addAll(content.keySet());
+                    Map<String, Object> schema = schemaOf(content);
+                    if (schema != null) {
+                        converted.put("schema", schema);
+                    }
+                }
+                responses.put(entry.getKey(), converted);
+            }
+        }
+        result.put("responses", responses);
+        if (!produces.isEmpty()) {
+            result.putIfAbsent("produces", new ArrayList<>(produces));
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> toSwagger2Parameters(List<Map<String, Object>> parameters, DefinitionResolver resolver) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (parameters == null) {
+            return result;
+        }
+        for (Map<String, Object> parameter : parameters) {
+            parameter = deref(parameter, resolver);
+            if (parameter == null) {
+                continue;
+            }
+            Map<String, Object> converted = new LinkedHashMap<>(parameter);
+            Map<String, Object> schema = deref((Map<String, Object>) parameter.get("schema"), resolver);
+            if (schema != null && converted.get("type") == null) {
+                converted.remove("schema");
+                copyIfPresent(schema, converted, "type");
+                copyIfPresent(schema, converted, "format");
+                copyIfPresent(schema, converted, "items");
+            }
+            result.add(converted);
+        }
+        return result;
+    }
+
+    /**
+     * 取 json 类型的 schema，没有时取第一个媒体类型的 schema
+     */
+    private static Map<String, Object> schemaOf(Map<String, Object> content) {
+        Map<String, Object> mediaType = null;
+        for (Map.Entry<String, Object> entry : content.entrySet()) {
+            if (entry.getKey().contains("json")) {
+                mediaType = (Map<String, Object>) entry.getValue();
+                break;
+            }
+        }
+        if (mediaType == null) {
+            mediaType = (Map<String, Object>) content.values().iterator().next();
+        }
+        return mediaType == null ? null : (Map<String, Object>) mediaType.get("schema");
+    }
+
+    private static Map<String, Object> deref(Map<String, Object> node, DefinitionResolver resolver) {
+        if (node != null && node.get("$ref") != null) {
+            return resolver.lookup(node.get("$ref").toString());
+        }
+        return node;
+    }
+
+    private static void copyIfPresent(Map<String, Object> from, Map<String, Object> to, String key) {
+        if (from.get(key) != null) {
+            to.put(key, from.get(key));
+        }
+    }
+}
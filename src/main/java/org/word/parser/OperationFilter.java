@@ -0,0 +1,132 @@
+package org.word.parser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 按 tag、路径、请求方式和是否废弃筛选接口
+ * <p>
+ * 解析时使用：路径和请求方式不匹配的直接跳过不读取，tag 和废弃标记不匹配的接口不处理，
+ * 未被保留的接口引用的 definition 也不会解析。各条件为空时不限制。
+ *
+ * @author cuixiuyin
+ */
+@SuppressWarnings("unchecked")
+public class OperationFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Set<String> includeTags;
+
+    private final Set<String> excludeTags;
+
+    /**
+     * Ant 风格的路径，如 /pet/**，与文档中的路径匹配，不含 basePath
+     */
+    private final Set<String> paths;
+
+    /**
+     * 小写的请求方式
+     */
+    private final Set<String> methods;
+
+    private final boolean includeDeprecated;
+
+    public OperationFilter(Collection<String> includeTags, Collection<String> excludeTags, Collection<String> paths,
+                           Collection<String> methods, boolean includeDeprecated) {
+        this.includeTags = normalize(includeTags, false);
+        this.excludeTags = normalize(excludeTags, false);
+        this.paths = normalize(paths, false);
+        this.methods = normalize(methods, true);
+        this.includeDeprecated = includeDeprecated;
+    }
+
+    private static Set<String> normalize(Collection<String> values, boolean lowerCase) {
+        Set<String> result = new TreeSet<>();
+        if (values != null) {
+            values.stream()
+                    .filter(StringUtils::isNotBlank)
+                    .map(value -> lowerCase ? value.trim().toLowerCase() : value.trim())
+                    .forEach(result::add);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * 没有任何条件
+     */
+    public boolean isEmpty() {
+        return includeTags.isEmpty() && excludeTags.isEmpty() && paths.isEmpty() && methods.isEmpty() && includeDeprecated;
+    }
+
+    public boolean acceptPath(String url) {
+        return paths.isEmpty() || paths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, url));
+    }
+
+    public boolean acceptMethod(String method) {
+        return methods.isEmpty() || methods.contains(method);
+    }
+
+    /**
+     * @param method    小写的请求方式
+     * @param operation 接口内容
+     */
+    public boolean accept(String method, Map<String, Object> operation) {
+        if (!acceptMethod(method)) {
+            return false;
+        }
+        if (!includeDeprecated && Boolean.TRUE.equals(operation.get("deprecated"))) {
+            return false;
+        }
+        Object tags = operation.get("tags");
+        List<Object> tagList = tags instanceof List ? (List<Object>) tags : Collections.emptyList();
+        if (!includeTags.isEmpty() && tagList.stream().noneMatch(tag -> includeTags.contains(String.valueOf(tag)))) {
+            return false;
+        }
+        return tagList.stream().noneMatch(tag -> excludeTags.contains(String.valueOf(tag)));
+    }
+
+    /**
+     * 去掉路由下不保留的接口
+     *
+     * @param pathItem 路由下的请求方式及公共参数
+     * @return 没有保留的接口时返回 null
+     */
+    public Map<String, Object> apply(Map<String, Object> pathItem) {
+        Map<String, Object> result = new LinkedHashMap<>(pathItem.size());
+        boolean accepted = false;
+        for (Map.Entry<String, Object> entry : pathItem.entrySet()) {
+            if (!OpenApi3Adapter.HTTP_METHODS.contains(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            } else if (entry.getValue() instanceof Map && accept(entry.getKey(), (Map<String, Object>) entry.getValue())) {
+                result.put(entry.getKey(), entry.getValue());
+                accepted = true;
+            }
+        }
+        return accepted ? result : null;
+    }
+
+    /**
+     * 条件的规范形式，相同条件的结果可以共用缓存
+     */
+    public String key() {
+        return "tags=" + String.join(",", includeTags)
+                + ";excludeTags=" + String.join(",", excludeTags)
+                + ";paths=" + String.join(",", paths)
+                + ";methods=" + String.join(",", methods)
+                + ";deprecated=" + includeDeprecated;
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
@@ -0,0 +1,142 @@
+package org.word.parser;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量解析用的内容 hash
+ * <p>
+ * 接口的 hash 由文档级配置、请求方式和路径、接口本身的内容、直接和间接引用的所有 $ref 的内容 hash，
+ * 以及其中每组循环引用的解析入口组成，hash 不变则生成的 Table 不变。每个 $ref 的内容 hash 和直接引用只计算一次。
+ * 按文档顺序计算，属性顺序不同视为内容不同。
+ *
+ * @author cuixiuyin
+ */
+public class OperationHasher {
+
+    private static final String REF = "$ref";
+
+    private static final String MISSING = "-";
+
+    private final DefinitionResolver resolver;
+
+    private final String contextHash;
+
+    /**
+     * $ref -> 内容 hash
+     */
+    private final Map<String, String> definitionHashes = new ConcurrentHashMap<>(256);
+
+    /**
+     * $ref -> 直接引用的 $ref
+     */
+    private final Map<String, Set<String>> definitionRefs = new ConcurrentHashMap<>(256);
+
+    /**
+     * @param resolver 查找 $ref 指向的对象
+     * @param context   影响所有接口输出的文档级配置，如 basePath、默认 consumes/produces
+     */
+    public OperationHasher(DefinitionResolver resolver, Object... context) {
+        this.resolver = resolver;
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Object value : context) {
+            write(hasher, value, null);
+        }
+        this.contextHash = hasher.hash().toString();
+    }
+
+    /**
+     * @param operationKey     请求方式和路径
+     * @param operation        接口内容
+     * @param commonParameters 路由下所有请求方式的公共参数
+     */
+    public String hash(String operationKey, Object operation, Object commonParameters) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(contextHash, StandardCharsets.UTF_8);
+        hasher.putString(operationKey, StandardCharsets.UTF_8);
+        Set<String> refs = new TreeSet<>();
+        write(hasher, operation, refs);
+        write(hasher, commonParameters, refs);
+
+        // 按 $ref 排序，间接引用的顺序不影响 hash
+        Set<String> closure = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>(refs);
+        while (!queue.isEmpty()) {
+            String ref = queue.poll();
+            if (closure.add(ref)) {
+                definitionHash(ref);
+                queue.addAll(definitionRefs.getOrDefault(ref, Collections.emptySet()));
+            }
+        }
+        for (String ref : closure) {
+            hasher.putString(ref, StandardCharsets.UTF_8);
+            hasher.putString(definitionHashes.get(ref), StandardCharsets.UTF_8);
+            // 循环引用在哪里断开取决于入口，入口由整个文档的 definitions 顺序决定，不在引用的内容中
+            String entry = resolver.entryOf(ref);
+            if (entry != null) {
+                hasher.putChar('@').putString(entry, StandardCharsets.UTF_8);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * 计算 $ref 指向对象的内容 hash，同时记录其直接引用
+     */
+    public String definitionHash(String ref) {
+        return definitionHashes.computeIfAbsent(ref, key -> {
+            Map<String, Object> target = resolver.lookup(key);
+            if (target == null) {
+                definitionRefs.put(key, Collections.emptySet());
+                return MISSING;
+            }
+            Hasher hasher = Hashing.sha256().newHasher();
+            Set<String> refs = new TreeSet<>();
+            write(hasher, target, refs);
+            definitionRefs.put(key, refs);
+            return hasher.hash().toString();
+        });
+    }
+
+    /**
+     * 按结构写入 hash，每种值带类型前缀，避免不同结构拼接出相同的字节
+     *
+     * @param refs 收集遇到的 $ref，为 null 时不收集
+     */
+    private static void write(Hasher hasher, Object value, Set<String> refs) {
+        if (value instanceof Map) {
+            hasher.putChar('{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                hasher.putString(key, StandardCharsets.UTF_8).putChar(':');
+                if (refs != null && REF.equals(key) && entry.getValue() instanceof String) {
+                    refs.add((String) entry.getValue());
+                }
+                write(hasher, entry.getValue(), refs);
+            }
+            hasher.putChar('}');
+        } else if (value instanceof List) {
+            hasher.putChar('[');
+            for (Object item : (List<?>) value) {
+                write(hasher, item, refs);
+            }
+            hasher.putChar(']');
+        } else if (value == null) {
+            hasher.putChar('n');
+        } else {
+            // 同时写入类型，区分 "1" 和 1
+            hasher.putString(value.getClass().getSimpleName(), StandardCharsets.UTF_8).putChar('=');
+            hasher.putString(value.toString(), StandardCharsets.UTF_8).putChar(',');
+        }
+    }
+}
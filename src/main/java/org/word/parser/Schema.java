@@ -0,0 +1,325 @@
+package org.word.parser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.word.model.ModelAttr;
+import org.word.model.TypeKind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析用的 schema 结构
+ * <p>
+ * 由文档中的 schema 对象构建一次，之后各处理阶段直接读取字段，不再按字符串 key 查找 Map 和强制转换；
+ * 类型名、属性的展示类型在构建时拼接好，$ref 由 DefinitionResolver 连接到被引用的 Schema。
+ * 只能通过 DefinitionResolver 创建。
+ *
+ * @author cuixiuyin
+ */
+@SuppressWarnings("unchecked")
+public final class Schema {
+
+    private static final String ARRAY = "array";
+
+    private final String type;
+
+    private final String format;
+
+    private final String ref;
+
+    private final Schema items;
+
+    /**
+     * 属性名 -> 属性，没有 properties 时为 null
+     */
+    private final Map<String, Schema> properties;
+
+    /**
+     * additionalProperties 为对象时的值类型
+     */
+    private final Schema additionalProperties;
+
+    private final List<Schema> allOf;
+
+    private final List<Schema> oneOf;
+
+    private final List<Schema> anyOf;
+
+    private final String title;
+
+    private final String description;
+
+    /**
+     * required 为属性名列表时的属性名
+     */
+    private final List<Object> requiredNames;
+
+    /**
+     * required 为布尔值时的值
+     */
+    private final Boolean required;
+
+    private final Object example;
+
+    /**
+     * 作为属性时的展示类型，如 string(date-time)、array:Pet，不是属性时为 null
+     */
+    private final String attrType;
+
+    private final TypeKind attrKind;
+
+    /**
+     * 作为属性时展开的引用：自身、allOf/oneOf/anyOf 中第一个引用或 items 的引用
+     */
+    private final Schema attrRef;
+
+    /**
+     * $ref 指向的 Schema，不存在时为 null
+     */
+    private volatile Schema target;
+
+    /**
+     * 解析得到的 ModelAttr，由 DefinitionResolver 维护
+     */
+    volatile ModelAttr model;
+
+    private Schema(Map<String, Object> map, boolean property, List<Schema> refs) {
+        String type = null;
+        String format = null;
+        String ref = null;
+        Schema items = null;
+        Map<String, Schema> properties = null;
+        Schema additionalProperties = null;
+        List<Schema> allOf = null;
+        List<Schema> oneOf = null;
+        List<Schema> anyOf = null;
+        String title = null;
+        String description = null;
+        List<Object> requiredNames = null;
+        Boolean required = null;
+        Object example = null;
+        // 遍历一次字段，不逐个 key 查找
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            switch (entry.getKey()) {
+                case "type":
+                    type = value == null ? null : value.toString();
+                    break;
+                case "format":
+                    format = value == null ? null : value.toString();
+                    break;
+                case "$ref":
+                    ref = value == null ? null : value.toString();
+                    break;
+                case "items":
+                    items = of(value, false, refs);
+                    break;
+                case "properties":
+                    properties = propertiesOf(value, refs);
+                    break;
+                case "additionalProperties":
+                    additionalProperties = of(value, true, refs);
+                    break;
+                case "allOf":
+                    allOf = listOf(value, refs);
+                    break;
+                case "oneOf":
+                    oneOf = listOf(value, refs);
+                    break;
+                case "anyOf":
+                    anyOf = listOf(value, refs);
+                    break;
+                case "title":
+                    title = value == null ? null : value.toString();
+                    break;
+                case "description":
+                    description = value == null ? null : value.toString();
+                    break;
+                case "required":
+                    requiredNames = value instanceof List ? (List<Object>) value : null;
+                    required = value instanceof Boolean ? (Boolean) value : null;
+                    break;
+                case "example":
+                    example = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.type = type;
+        this.format = format;
+        this.ref = ref;
+        this.items = items;
+        this.properties = properties;
+        this.additionalProperties = additionalProperties;
+        this.allOf = allOf;
+        this.oneOf = oneOf;
+        this.anyOf = anyOf;
+        this.title = title;
+        this.description = description;
+        this.requiredNames = requiredNames;
+        this.required = required;
+        this.example = example;
+
+        if (property) {
+            // 与属性的展示规则一致：类型(格式)[:元素类型][:引用类名]
+            String attr = type;
+            if (format != null) {
+                attr = attr + "(" + format + ")";
+            }
+            attr = StringUtils.defaultIfBlank(attr, "object");
+            Schema refHolder = ref != null ? this : composedRef();
+            Object itemsValue = map.get("items");
+            if (itemsValue instanceof Map && ((Map<String, Object>) itemsValue).containsKey("type")) {
+                attr = attr + ":" + ((Map<String, Object>) itemsValue).get("type");
+            }
+            if (refHolder == null && items != null && items.ref != null) {
+                refHolder = items;
+            }
+            if (refHolder != null) {
+                attr = attr + ":" + DefinitionResolver.refName(refHolder.ref);
+            }
+            this.attrType = attr;
+            this.attrKind = TypeKind.of(attr);
+            this.attrRef = refHolder;
+        } else {
+            this.attrType = null;
+            this.attrKind = null;
+            this.attrRef = null;
+        }
+
+        if (ref != null) {
+            refs.add(this);
+        }
+    }
+
+    /**
+     * 构建 schema，value 不是对象时返回 null
+     *
+     * @param property 是否作为属性使用，属性才计算展示类型
+     * @param refs     收集带 $ref 的节点，由调用方连接
+     */
+    static Schema of(Object value, boolean property, List<Schema> refs) {
+        return value instanceof Map ? new Schema((Map<String, Object>) value, property, refs) : null;
+    }
+
+    private static Map<String, Schema> propertiesOf(Object value, List<Schema> refs) {
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        Map<String, Schema> properties = new LinkedHashMap<>();
+        ((Map<String, Object>) value).forEach((name, property) -> {
+            Schema schema = of(property, true, refs);
+            if (schema != null) {
+                properties.put(name, schema);
+            }
+        });
+        return Collections.unmodifiableMap(properties);
+    }
+
+    private static List<Schema> listOf(Object value, List<Schema> refs) {
+        if (!(value instanceof List)) {
+            return null;
+        }
+        List<Schema> list = new ArrayList<>();
+        for (Object item : (List<Object>) value) {
+            Schema schema = of(item, false, refs);
+            if (schema != null) {
+                list.add(schema);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * allOf / oneOf / anyOf 中第一个 $ref，OpenAPI 3 常用 allOf 包装单个引用来附加描述
+     */
+    private Schema composedRef() {
+        for (List<Schema> composed : Arrays.asList(allOf, oneOf, anyOf)) {
+            if (composed != null) {
+                for (Schema schema : composed) {
+                    if (schema.ref != null) {
+                        return schema;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    void link(Schema target) {
+        this.target = target;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isArray() {
+        return ARRAY.equals(type);
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public Schema getTarget() {
+        return target;
+    }
+
+    public Schema getItems() {
+        return items;
+    }
+
+    public Map<String, Schema> getProperties() {
+        return properties;
+    }
+
+    public Schema getAdditionalProperties() {
+        return additionalProperties;
+    }
+
+    public List<Schema> getAllOf() {
+        return allOf;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isRequired(String name) {
+        return requiredNames != null && requiredNames.contains(name);
+    }
+
+    public Boolean getRequired() {
+        return required;
+    }
+
+    public Object getExample() {
+        return example;
+    }
+
+    public String getAttrType() {
+        return attrType;
+    }
+
+    public TypeKind getAttrKind() {
+        return attrKind;
+    }
+
+    public Schema getAttrRef() {
+        return attrRef;
+    }
+}
@@ -0,0 +1,146 @@
+package org.word.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.word.utils.JsonUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 以输入流为数据源，读取时同时计算 sha256 和字节数
+ * <p>
+ * 第一次读取的流在关闭时会读完剩余内容，SwaggerStreamParser 回调 header 时 hash 已经可用，
+ * 与 SpecCache.hash 对同一份 UTF-8 文档的结果一致。
+ *
+ * @author cuixiuyin
+ */
+public class SpecSource implements SwaggerStreamParser.ParserSource {
+
+    private final StreamOpener opener;
+
+    private final boolean repeatable;
+
+    private DigestingInputStream first;
+
+    private SpecSource(StreamOpener opener, boolean repeatable) {
+        this.opener = opener;
+        this.repeatable = repeatable;
+    }
+
+    /**
+     * 只能读一次的流，例如 http 响应
+     */
+    public static SpecSource of(InputStream in) {
+        return new SpecSource(() -> in, false);
+    }
+
+    /**
+     * 每次调用 opener 返回一个新的流，例如上传的文件
+     */
+    public static SpecSource repeatable(StreamOpener opener) {
+        return new SpecSource(opener, true);
+    }
+
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    @Override
+    public JsonParser open() throws IOException {
+        if (first == null) {
+            first = new DigestingInputStream(opener.open());
+            return JsonUtils.createParser(first);
+        }
+        if (!repeatable) {
+            throw new IllegalStateException("input stream can only be read once");
+        }
+        return JsonUtils.createParser(opener.open());
+    }
+
+    /**
+     * 第一次读取的流关闭后可用
+     */
+    public String hash() {
+        if (first == null || first.hash == null) {
+            throw new IllegalStateException("spec has not been read");
+        }
+        return first.hash;
+    }
+
+    /**
+     * 文档字节数
+     */
+    public long size() {
+        return first == null ? 0 : first.size;
+    }
+
+    public interface StreamOpener {
+
+        InputStream open() throws IOException;
+    }
+
+    private static class DigestingInputStream extends FilterInputStream {
+
+        private final Hasher hasher = Hashing.sha256().newHasher();
+
+        private long size;
+
+        private String hash;
+
+        private DigestingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                hasher.putByte((byte) b);
+                size++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                hasher.putBytes(b, off, n);
+                size += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的内容也要计入 hash
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (hash != null) {
+                return;
+            }
+            try {
+                byte[] buffer = new byte[8192];
+                while (read(buffer, 0, buffer.length) >= 0) {
+                    // 读完文档末尾的空白，保证 hash 覆盖整个文档
+                }
+                hash = hasher.hash().toString();
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
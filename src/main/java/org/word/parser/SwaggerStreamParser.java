@@ -0,0 +1,194 @@
+package org.word.parser;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.word.utils.JsonUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于 Jackson JsonParser 的 swagger 流式解析
+ * <p>
+ * 除 paths 以外的顶层字段（info、basePath、definitions 等）读成 Map，
+ * paths 下的每个路由逐个读出并回调，处理完即可丢弃，
+ * 内存峰值由 definitions 加单个路由决定，而不是整个文档。
+ * 回调不需要的路由和请求方式直接跳过，不读成 Map。
+ * <p>
+ * paths 通常出现在 definitions 之前：可重复读取的数据源会再读一遍只处理 paths，
+ * 只能读一次的数据源（如 http 响应）则把 paths 原样写到临时文件，读完头部后再从临时文件读取，
+ * 堆内存不随 paths 的大小增长，解析结束后删除临时文件。
+ *
+ * @author cuixiuyin
+ */
+public class SwaggerStreamParser {
+
+    private static final String PATHS = "paths";
+
+    private final ParserSource source;
+
+    private final boolean repeatable;
+
+    public SwaggerStreamParser(ParserSource source, boolean repeatable) {
+        this.source = source;
+        this.repeatable = repeatable;
+    }
+
+    public void parse(Handler handler) throws IOException {
+        Map<String, Object> header = new LinkedHashMap<>();
+        boolean hasPaths = false;
+        Path pathsFile = null;
+
+        try {
+            try (JsonParser parser = source.open()) {
+                expectStartObject(parser);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if (PATHS.equals(field)) {
+                        hasPaths = true;
+                        if (repeatable) {
+                            parser.skipChildren();
+                        } else {
+                            pathsFile = Files.createTempFile("swagger-paths", ".json");
+                            spool(parser, pathsFile);
+                        }
+                    } else {
+                        header.put(field, parser.readValueAs(Object.class));
+                    }
+                }
+            }
+
+            handler.header(header);
+            if (!hasPaths || !handler.readPaths()) {
+                return;
+            }
+
+            if (pathsFile != null) {
+                try (JsonParser parser = JsonUtils.createParser(new BufferedInputStream(Files.newInputStream(pathsFile)))) {
+                    parser.nextToken();
+                    readPaths(parser, handler);
+                }
+            } else {
+                try (JsonParser parser = source.open()) {
+                    expectStartObject(parser);
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        parser.nextToken();
+                        if (PATHS.equals(field)) {
+                            readPaths(parser, handler);
+                            break;
+                        }
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } finally {
+            if (pathsFile != null) {
+                Files.deleteIfExists(pathsFile);
+            }
+        }
+    }
+
+    /**
+     * 将当前 token 开始的 paths 写到文件，读完后 parser 停在 paths 的结束 token
+     */
+    private void spool(JsonParser parser, Path file) throws IOException {
+        try (JsonGenerator generator = JsonUtils.createGenerator(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * 逐个读取 paths 下的路由，当前 token 为 paths 的 START_OBJECT
+     */
+    private void readPaths(JsonParser parser, Handler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String url = parser.getCurrentName();
+            parser.nextToken();
+            if (!handler.acceptPath(url)) {
+                parser.skipChildren();
+                continue;
+            }
+            Map<String, Object> pathItem = readPathItem(parser, handler);
+            if (pathItem != null) {
+                handler.path(url, pathItem);
+            }
+        }
+    }
+
+    /**
+     * 读取单个路由，跳过回调不需要的请求方式，当前 token 为路由的值
+     */
+    private Map<String, Object> readPathItem(JsonParser parser, Handler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return parser.readValueAs(LinkedHashMap.class);
+        }
+        Map<String, Object> pathItem = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (OpenApi3Adapter.HTTP_METHODS.contains(field) && !handler.acceptMethod(field)) {
+                parser.skipChildren();
+            } else {
+                pathItem.put(field, parser.readValueAs(Object.class));
+            }
+        }
+        return pathItem;
+    }
+
+    private void expectStartObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("swagger 文档必须是 JSON 对象");
+        }
+    }
+
+    /**
+     * 数据源，每次调用 open 返回一个新的 JsonParser
+     */
+    public interface ParserSource {
+
+        JsonParser open() throws IOException;
+    }
+
+    /**
+     * 解析回调，header 总是在第一个 path 之前回调
+     */
+    public interface Handler {
+
+        void header(Map<String, Object> header) throws IOException;
+
+        void path(String url, Map<String, Object> pathItem) throws IOException;
+
+        /**
+         * header 之后调用，返回 false 时不再读取 paths
+         */
+        default boolean readPaths() {
+            return true;
+        }
+
+        /**
+         * 返回 false 时跳过该路由
+         */
+        default boolean acceptPath(String url) {
+            return true;
+        }
+
+        /**
+         * 返回 false 时跳过路由下该请求方式的接口
+         */
+        default boolean acceptMethod(String method) {
+            return true;
+        }
+    }
+}
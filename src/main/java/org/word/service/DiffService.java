@@ -0,0 +1,20 @@
+package org.word.service;
+
+import java.util.Map;
+
+/**
+ * 比较同一文档的两个版本
+ *
+ * @author cuixiuyin
+ */
+public interface DiffService {
+
+    /**
+     * 按请求方式和路径匹配接口，内容 hash 相同的接口和属性直接跳过，只展开有变化的部分
+     *
+     * @param before 旧版本的解析结果
+     * @param after  新版本的解析结果
+     * @return diffMap（分组 -> 接口差异）、各类接口数量及两个版本的 info
+     */
+    Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after);
+}
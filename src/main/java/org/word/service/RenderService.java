@@ -0,0 +1,27 @@
+package org.word.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * 将解析结果渲染为文档
+ *
+ * @author cuixiuyin
+ */
+public interface RenderService {
+
+    /**
+     * @param model  WordService 返回的解析结果，以及 url、download 等模板参数
+     * @param format doc 或 docx
+     * @param os     输出流，写完后不会关闭
+     */
+    void render(Map<String, Object> model, String format, OutputStream os) throws IOException;
+
+    String contentType(String format);
+
+    /**
+     * 文件扩展名，不含点
+     */
+    String extension(String format);
+}
@@ -1,8 +1,12 @@
 package org.word.service;
 
 import org.springframework.web.multipart.MultipartFile;
+import org.word.parser.OperationFilter;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by XiuYin.Cui on 2018/1/12.
@@ -11,7 +15,41 @@ public interface WordService {
 
     Map<String,Object> tableList(String swaggerUrl);
 
+    /**
+     * @param filter 只生成符合条件的接口，为 null 时生成全部
+     */
+    Map<String, Object> tableList(String swaggerUrl, OperationFilter filter);
+
+    /**
+     * @param progress 解析过程中累加已解析的接口数
+     */
+    Map<String, Object> tableList(String swaggerUrl, AtomicLong progress);
+
     Map<String, Object> tableListFromString(String jsonStr);
 
+    Map<String, Object> tableListFromString(String jsonStr, AtomicLong progress);
+
+    Map<String, Object> tableListFromString(String jsonStr, OperationFilter filter);
+
+    /**
+     * 边读边解析，不把整个文档读成 String，读完后关闭输入流
+     *
+     * @param jsonStream swagger json，按字节自动识别 UTF-8/16/32 编码
+     */
+    Map<String, Object> tableListFromStream(InputStream jsonStream);
+
+    Map<String, Object> tableListFromStream(InputStream jsonStream, AtomicLong progress);
+
     Map<String, Object> tableList(MultipartFile jsonFile);
+
+    Map<String, Object> tableList(MultipartFile jsonFile, OperationFilter filter);
+
+    /**
+     * 解析本地文件，文件内容以内存映射方式读取，不占用堆内存
+     *
+     * @param specFile swagger json 文件
+     */
+    Map<String, Object> tableListFromFile(Path specFile);
+
+    Map<String, Object> tableListFromFile(Path specFile, AtomicLong progress);
 }
@@ -0,0 +1,326 @@
+package org.word.service.impl;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.word.model.Change;
+import org.word.model.ModelAttr;
+import org.word.model.OperationDiff;
+import org.word.model.Request;
+import org.word.model.Response;
+import org.word.model.Table;
+import org.word.service.DiffService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 接口按 请求方式 + 路径 建立索引后一一匹配，整体比较是线性的；
+ * 每个 Table 和 ModelAttr 先计算结构 hash（ModelAttr 按对象缓存，引用同一 definition 的属性只计算一次），
+ * hash 相同的接口和属性子树不再逐项比较。
+ *
+ * @author cuixiuyin
+ */
+@SuppressWarnings("unchecked")
+@Service
+public class DiffServiceImpl implements DiffService {
+
+    private static final String ADDED = "新增";
+
+    private static final String REMOVED = "删除";
+
+    private static final String MODIFIED = "修改";
+
+    /**
+     * 返回属性和请求体属性的最大比较层级，与生成文档时的展开层级一致
+     */
+    @Value("${swagger.parse.max-depth:10}")
+    private int maxDepth;
+
+    @Override
+    public Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after) {
+        Comparison comparison = new Comparison(maxDepth);
+        Map<String, Table> oldOperations = index(before);
+        Map<String, Table> newOperations = index(after);
+
+        Map<String, List<OperationDiff>> diffMap = new TreeMap<>();
+        int added = 0;
+        int modified = 0;
+        int unchanged = 0;
+        for (Map.Entry<String, Table> entry : newOperations.entrySet()) {
+            Table newTable = entry.getValue();
+            Table oldTable = oldOperations.remove(entry.getKey());
+            if (oldTable == null) {
+                add(diffMap, operationDiff(OperationDiff.Status.ADDED, newTable));
+                added++;
+            } else if (comparison.hash(oldTable).equals(comparison.hash(newTable))) {
+                unchanged++;
+            } else {
+                OperationDiff diff = operationDiff(OperationDiff.Status.MODIFIED, newTable);
+                comparison.compare(oldTable, newTable, diff.getChanges());
+                add(diffMap, diff);
+                modified++;
+            }
+        }
+        for (Table oldTable : oldOperations.values()) {
+            add(diffMap, operationDiff(OperationDiff.Status.REMOVED, oldTable));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("diffMap", diffMap);
+        result.put("added", added);
+        result.put("removed", oldOperations.size());
+        result.put("modified", modified);
+        result.put("unchanged", unchanged);
+        result.put("oldInfo", before.get("info"));
+        result.put("newInfo", after.get("info"));
+        return result;
+    }
+
+    /**
+     * 请求方式 + 路径 -> Table
+     */
+    private static Map<String, Table> index(Map<String, Object> result) {
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) result.get("tableMap");
+        Map<String, Table> operations = new LinkedHashMap<>();
+        if (tableMap != null) {
+            tableMap.values().forEach(tables -> tables.forEach(table ->
+                    operations.putIfAbsent(StringUtils.upperCase(table.getRequestType()) + " " + table.getUrl(), table)));
+        }
+        return operations;
+    }
+
+    private static OperationDiff operationDiff(OperationDiff.Status status, Table table) {
+        OperationDiff diff = new OperationDiff();
+        diff.setStatus(status);
+        diff.setTitle(table.getTitle());
+        diff.setTag(table.getTag());
+        diff.setRequestType(StringUtils.upperCase(table.getRequestType()));
+        diff.setUrl(table.getUrl());
+        diff.setDescription(table.getDescription());
+        return diff;
+    }
+
+    private static void add(Map<String, List<OperationDiff>> diffMap, OperationDiff diff) {
+        diffMap.computeIfAbsent(diff.getTitle(), title -> new ArrayList<>()).add(diff);
+    }
+
+    /**
+     * 一次比较中的结构 hash 缓存
+     */
+    private static class Comparison {
+
+        private final int maxDepth;
+
+        private final Map<ModelAttr, HashCode> modelHashes = new IdentityHashMap<>();
+
+        /**
+         * 正在计算 hash 的 ModelAttr，遇到循环引用时只写入类名
+         */
+        private final Set<ModelAttr> hashing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Comparison(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        private HashCode hash(Table table) {
+            Hasher hasher = Hashing.sha256().newHasher();
+            putStrings(hasher, table.getTitle(), table.getTag(), table.getDescription(),
+                    table.getRequestForm(), table.getResponseForm());
+            putRequests(hasher, table.getPathList());
+            putRequests(hasher, table.getQueryList());
+            putRequests(hasher, table.getBodyList());
+            if (table.getResponseList() != null) {
+                for (Response response : table.getResponseList()) {
+                    putStrings(hasher, response.getName(), response.getDescription(), response.getRemark());
+                }
+            }
+            hasher.putChar('|');
+            putModel(hasher, table.getModelAttr());
+            return hasher.hash();
+        }
+
+        private void putRequests(Hasher hasher, List<Request> requests) {
+            hasher.putChar('[');
+            if (requests != null) {
+                for (Request request : requests) {
+                    putStrings(hasher, request.getName(), request.getType(), request.getParamType(),
+                            String.valueOf(request.getRequire()), request.getRemark());
+                    putModel(hasher, request.getModelAttr());
+                }
+            }
+            hasher.putChar(']');
+        }
+
+        private void putModel(Hasher hasher, ModelAttr modelAttr) {
+            if (modelAttr == null) {
+                hasher.putChar('n');
+            } else if (hashing.contains(modelAttr)) {
+                putStrings(hasher, "cycle", modelAttr.getClassName());
+            } else {
+                hasher.putBytes(hash(modelAttr).asBytes());
+            }
+        }
+
+        private HashCode hash(ModelAttr modelAttr) {
+            HashCode cached = modelHashes.get(modelAttr);
+            if (cached != null) {
+                return cached;
+            }
+            hashing.add(modelAttr);
+            Hasher hasher = Hashing.sha256().newHasher();
+            putStrings(hasher, modelAttr.getName(), modelAttr.getType(), String.valueOf(modelAttr.getRequire()),
+                    modelAttr.getDescription());
+            if (modelAttr.getProperties() != null) {
+                for (ModelAttr property : modelAttr.getProperties()) {
+                    putModel(hasher, property);
+                }
+            }
+            hashing.remove(modelAttr);
+            HashCode hash = hasher.hash();
+            modelHashes.put(modelAttr, hash);
+            return hash;
+        }
+
+        private static void putStrings(Hasher hasher, String... values) {
+            for (String value : values) {
+                if (value == null) {
+                    hasher.putChar('n');
+                } else {
+                    hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        /**
+         * 逐项比较 hash 不同的两个接口
+         */
+        private void compare(Table before, Table after, List<Change> changes) {
+            compareField(changes, "接口", "分组", before.getTitle(), after.getTitle());
+            compareField(changes, "接口", "名称", before.getTag(), after.getTag());
+            compareField(changes, "接口", "接口描述", before.getDescription(), after.getDescription());
+            compareField(changes, "接口", "请求类型", before.getRequestForm(), after.getRequestForm());
+            compareField(changes, "接口", "返回类型", before.getResponseForm(), after.getResponseForm());
+            compareRequests(changes, "路径参数", before.getPathList(), after.getPathList());
+            compareRequests(changes, "请求参数", before.getQueryList(), after.getQueryList());
+            compareRequests(changes, "请求体", before.getBodyList(), after.getBodyList());
+            compareList(changes, "返回码", before.getResponseList(), after.getResponseList(), Response::getName,
+                    response -> join(response.getDescription(), response.getRemark()), null);
+            compareProperties(changes, "返回属性", "", properties(before.getModelAttr()), properties(after.getModelAttr()), 1);
+        }
+
+        private void compareRequests(List<Change> changes, String location, List<Request> before, List<Request> after) {
+            compareList(changes, location, before, after, Request::getName,
+                    request -> join(request.getType(), require(request.getRequire()), request.getRemark()),
+                    (name, oldRequest, newRequest) -> {
+                        ModelAttr oldModel = oldRequest.getModelAttr();
+                        ModelAttr newModel = newRequest.getModelAttr();
+                        if (oldModel != null && newModel != null && !hash(oldModel).equals(hash(newModel))) {
+                            compareProperties(changes, location, name + ".", oldModel.getProperties(), newModel.getProperties(), 1);
+                        }
+                    });
+        }
+
+        /**
+         * 按 hash 剪枝递归比较属性，相同 hash 的子树直接跳过
+         */
+        private void compareProperties(List<Change> changes, String location, String prefix,
+                                       List<ModelAttr> before, List<ModelAttr> after, int depth) {
+            if (depth > maxDepth) {
+                return;
+            }
+            compareList(changes, location, before, after, attr -> prefix + attr.getName(),
+                    attr -> join(attr.getType(), require(attr.getRequire()), attr.getDescription()),
+                    (name, oldAttr, newAttr) -> {
+                        if (!hash(oldAttr).equals(hash(newAttr))) {
+                            compareProperties(changes, location, name + ".", oldAttr.getProperties(), newAttr.getProperties(), depth + 1);
+                        }
+                    });
+        }
+
+        /**
+         * 按名称匹配两个列表，记录新增、删除和描述不同的项
+         *
+         * @param describe 用于比较和展示的描述
+         * @param matched  两边都存在时继续比较子项，可以为 null
+         */
+        private <T> void compareList(List<Change> changes, String location, List<T> before, List<T> after,
+                                     Function<T, String> name, Function<T, String> describe,
+                                     MatchedHandler<T> matched) {
+            Map<String, T> oldItems = byName(before, name);
+            for (Map.Entry<String, T> entry : byName(after, name).entrySet()) {
+                T oldItem = oldItems.remove(entry.getKey());
+                T newItem = entry.getValue();
+                if (oldItem == null) {
+                    changes.add(new Change(location, entry.getKey(), ADDED, null, describe.apply(newItem)));
+                    continue;
+                }
+                String oldDescription = describe.apply(oldItem);
+                String newDescription = describe.apply(newItem);
+                if (!oldDescription.equals(newDescription)) {
+                    changes.add(new Change(location, entry.getKey(), MODIFIED, oldDescription, newDescription));
+                }
+                if (matched != null) {
+                    matched.accept(entry.getKey(), oldItem, newItem);
+                }
+            }
+            oldItems.forEach((key, oldItem) -> changes.add(new Change(location, key, REMOVED, describe.apply(oldItem), null)));
+        }
+
+        private static <T> Map<String, T> byName(List<T> items, Function<T, String> name) {
+            Map<String, T> map = new LinkedHashMap<>();
+            if (items != null) {
+                items.forEach(item -> map.putIfAbsent(name.apply(item), item));
+            }
+            return map;
+        }
+
+        private static void compareField(List<Change> changes, String location, String name, String before, String after) {
+            if (!Objects.equals(StringUtils.defaultString(before), StringUtils.defaultString(after))) {
+                changes.add(new Change(location, name, MODIFIED, before, after));
+            }
+        }
+
+        private static List<ModelAttr> properties(ModelAttr modelAttr) {
+            return modelAttr == null ? null : modelAttr.getProperties();
+        }
+
+        private static String require(Boolean require) {
+            return Boolean.TRUE.equals(require) ? "必填" : "非必填";
+        }
+
+        private static String join(String... values) {
+            StringBuilder sb = new StringBuilder();
+            for (String value : values) {
+                if (StringUtils.isNotBlank(value)) {
+                    if (sb.length() > 0) {
+                        sb.append("，");
+                    }
+                    sb.append(value);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private interface MatchedHandler<T> {
+
+        /**
+         * 旧版本和新版本中的同名项
+         */
+        void accept(String name, T before, T after);
+    }
+}
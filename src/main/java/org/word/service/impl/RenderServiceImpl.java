@@ -0,0 +1,136 @@
+package org.word.service.impl;
+
+import com.google.common.io.CountingOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.word.cache.IncrementalCache;
+import org.word.config.GenerationMetrics;
+import org.word.docx.DocxWriter;
+import org.word.model.Table;
+import org.word.service.RenderService;
+
+import javax.annotation.Resource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * doc 使用 word 模板渲染，docx 使用 DocxWriter
+ *
+ * @author cuixiuyin
+ */
+@SuppressWarnings("unchecked")
+@Service
+public class RenderServiceImpl implements RenderService {
+
+    private static final String DOC = "doc";
+
+    private static final String TEMPLATE = "word";
+
+    /**
+     * 模板中单个 tag 的片段
+     */
+    private static final String TAG_FRAGMENT = "tag";
+
+    @Resource
+    private SpringTemplateEngine springTemplateEngine;
+
+    @Resource
+    private IncrementalCache incrementalCache;
+
+    /**
+     * 不通过 Spring 容器创建时不导出
+     */
+    @Autowired(required = false)
+    private GenerationMetrics metrics = GenerationMetrics.noop();
+
+    public RenderServiceImpl() {
+    }
+
+    /**
+     * 不通过 Spring 容器创建，供命令行使用
+     */
+    public RenderServiceImpl(SpringTemplateEngine springTemplateEngine) {
+        this.springTemplateEngine = springTemplateEngine;
+    }
+
+    @Override
+    public void render(Map<String, Object> model, String format, OutputStream os) throws IOException {
+        long start = metrics.start();
+        CountingOutputStream counting = new CountingOutputStream(os);
+        try {
+            write(model, format, counting);
+        } finally {
+            metrics.stop(GenerationMetrics.RENDER, start);
+        }
+        metrics.output(extension(format), counting.getCount());
+    }
+
+    private void write(Map<String, Object> model, String format, OutputStream os) throws IOException {
+        if (DocxWriter.FORMAT.equalsIgnoreCase(format)) {
+            new DocxWriter(os).write(model);
+            return;
+        }
+        Context context = new Context();
+        context.setVariables(model);
+        Map<String, String> tagHashes = (Map<String, String>) model.get("tagHashes");
+        if (incrementalCache != null && tagHashes != null) {
+            context.setVariable("fragments", new Fragments(model, tagHashes));
+        }
+        // 模板边渲染边写出，不在内存中拼接整个文档
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        springTemplateEngine.process(TEMPLATE, context, writer);
+        writer.flush();
+    }
+
+    @Override
+    public String contentType(String format) {
+        return DocxWriter.FORMAT.equalsIgnoreCase(format) ? DocxWriter.CONTENT_TYPE : "application/octet-stream;charset=utf-8";
+    }
+
+    @Override
+    public String extension(String format) {
+        return DocxWriter.FORMAT.equalsIgnoreCase(format) ? DocxWriter.FORMAT : DOC;
+    }
+
+    /**
+     * 模板中按 tag 取渲染好的片段，取值时才按 tag 的 hash 查找缓存，未命中时单独渲染该 tag 并放入缓存
+     */
+    public class Fragments {
+
+        private final Map<String, Object> model;
+
+        private final Map<String, List<Table>> tableMap;
+
+        private final Map<String, String> tagHashes;
+
+        private Fragments(Map<String, Object> model, Map<String, String> tagHashes) {
+            this.model = model;
+            this.tableMap = (Map<String, List<Table>>) model.get("tableMap");
+            this.tagHashes = tagHashes;
+        }
+
+        public String render(String key) {
+            String tagHash = tagHashes.get(key);
+            String fragment = incrementalCache.getFragment(tagHash);
+            metrics.cache("fragment", fragment != null);
+            if (fragment == null) {
+                Context context = new Context();
+                context.setVariables(model);
+                context.setVariable("tableMap", new AbstractMap.SimpleImmutableEntry<>(key, tableMap.get(key)));
+                fragment = springTemplateEngine.process(TEMPLATE, Collections.singleton(TAG_FRAGMENT), context);
+                incrementalCache.putFragment(tagHash, fragment);
+            }
+            return fragment;
+        }
+    }
+}
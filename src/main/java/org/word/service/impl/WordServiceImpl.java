@@ -1,25 +1,59 @@
 package org.word.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Utf8;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.word.cache.IncrementalCache;
+import org.word.cache.SpecCache;
+import org.word.config.GenerationMetrics;
+import org.word.model.GenerationTrace;
 import org.word.model.ModelAttr;
 import org.word.model.Request;
 import org.word.model.Response;
 import org.word.model.Table;
+import org.word.model.TypeKind;
+import org.word.parser.DefinitionResolver;
+import org.word.parser.MappedFile;
+import org.word.parser.OpenApi3Adapter;
+import org.word.parser.OperationFilter;
+import org.word.parser.OperationHasher;
+import org.word.parser.Schema;
+import org.word.parser.SpecSource;
+import org.word.parser.SwaggerStreamParser;
 import org.word.service.WordService;
 import org.word.utils.ClassType;
 import org.word.utils.JsonUtils;
 
+import javax.annotation.Resource;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -31,33 +65,202 @@ import java.util.stream.Collectors;
 @Service
 public class WordServiceImpl implements WordService {
 
+    private static final String SPEC_CACHE = "spec";
+
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private SpecCache specCache;
+
+    @Autowired
+    private IncrementalCache incrementalCache;
+
+    @Resource
+    private ExecutorService parseExecutor;
+
+    /**
+     * 不通过 Spring 容器创建时不导出
+     */
+    @Autowired(required = false)
+    private GenerationMetrics metrics = GenerationMetrics.noop();
+
+    @Value("${swagger.parse.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 示例和嵌套属性表格的最大展开层级
+     */
+    @Value("${swagger.parse.max-depth:10}")
+    private int maxDepth;
+
+    /**
+     * 单个示例中最多输出的字段和数组元素个数，按层展开，超出后更深层的对象、数组输出为空
+     */
+    @Value("${swagger.parse.example-nodes:1000}")
+    private int exampleNodes = 1000;
+
+    public WordServiceImpl() {
+    }
+
+    /**
+     * 不通过 Spring 容器创建，供命令行使用
+     *
+     * @param parseExecutor 解析路由用的线程池
+     * @param parallelism   每个文档同时处理的路由数
+     * @param maxDepth      示例和嵌套属性表格的最大展开层级
+     */
+    public WordServiceImpl(RestTemplate restTemplate, SpecCache specCache, ExecutorService parseExecutor,
+                           int parallelism, int maxDepth) {
+        this.restTemplate = restTemplate;
+        this.specCache = specCache;
+        this.parseExecutor = parseExecutor;
+        this.parallelism = parallelism;
+        this.maxDepth = maxDepth;
+    }
+
     @Override
     public Map<String, Object> tableList(String swaggerUrl) {
+        return tableList(swaggerUrl, new AtomicLong());
+    }
+
+    @Override
+    public Map<String, Object> tableList(String swaggerUrl, OperationFilter filter) {
+        return tableList(swaggerUrl, filter, new AtomicLong());
+    }
+
+    @Override
+    public Map<String, Object> tableList(String swaggerUrl, AtomicLong progress) {
+        return tableList(swaggerUrl, null, progress);
+    }
+
+    private Map<String, Object> tableList(String swaggerUrl, OperationFilter filter, AtomicLong progress) {
         Map<String, Object> resultMap = new HashMap<>();
         try {
-            String jsonStr = restTemplate.getForObject(swaggerUrl, String.class);
-            resultMap = tableListFromString(jsonStr);
-            log.debug(JsonUtils.writeJsonStr(resultMap));
+            resultMap = fetchAndParse(swaggerUrl, normalize(filter), progress);
+            if (log.isDebugEnabled()) {
+                log.debug(JsonUtils.writeJsonStr(resultMap));
+            }
         } catch (Exception e) {
             log.error("parse error", e);
         }
         return resultMap;
     }
 
+    /**
+     * 使用 ETag / Last-Modified 条件请求获取文档，未修改时直接返回缓存的解析结果
+     *
+     * @param swaggerUrl 文档地址
+     * @param filter     接口筛选条件，为 null 时生成全部
+     * @param progress   已解析的接口数
+     * @return 解析结果
+     */
+    private Map<String, Object> fetchAndParse(String swaggerUrl, OperationFilter filter, AtomicLong progress) {
+        SpecCache.Validator validator = specCache.getValidator(swaggerUrl);
+        HttpHeaders headers = new HttpHeaders();
+        if (validator != null && specCache.contains(cacheKey(validator.getHash(), filter))) {
+            if (validator.getEtag() != null) {
+                headers.setIfNoneMatch(validator.getEtag());
+            }
+            if (validator.getLastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, validator.getLastModified());
+            }
+        }
+        Map<String, Object> result = fetch(swaggerUrl, headers, filter, progress);
+        if (result == null && validator != null) {
+            Map<String, Object> cached = specCache.get(cacheKey(validator.getHash(), filter));
+            if (cached != null) {
+                metrics.cache(SPEC_CACHE, true);
+                progress.set(operationCount(cached));
+                return cached;
+            }
+            // 发出请求后缓存已被淘汰，重新完整获取
+            result = fetch(swaggerUrl, new HttpHeaders(), filter, progress);
+        }
+        return result;
+    }
+
+    /**
+     * 边下载边解析，响应体不转换为 String
+     *
+     * @return 解析结果，服务端返回 304 时为 null
+     */
+    private Map<String, Object> fetch(String swaggerUrl, HttpHeaders headers, OperationFilter filter, AtomicLong progress) {
+        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON, MediaType.ALL));
+        long start = metrics.start();
+        return restTemplate.execute(swaggerUrl, HttpMethod.GET, request -> request.getHeaders().putAll(headers), response -> {
+            metrics.stop(GenerationMetrics.FETCH, start);
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return null;
+            }
+            SpecSource source = SpecSource.of(response.getBody());
+            Map<String, Object> result = tableListFromSource(source, swaggerUrl, filter, progress);
+            String etag = response.getHeaders().getETag();
+            String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            if (etag != null || lastModified != null) {
+                SpecCache.Validator newValidator = new SpecCache.Validator();
+                newValidator.setEtag(etag);
+                newValidator.setLastModified(lastModified);
+                newValidator.setHash(source.hash());
+                specCache.putValidator(swaggerUrl, newValidator);
+            }
+            return result;
+        });
+    }
+
     @Override
     public Map<String, Object> tableListFromString(String jsonStr) {
+        return tableListFromString(jsonStr, new AtomicLong());
+    }
+
+    @Override
+    public Map<String, Object> tableListFromString(String jsonStr, AtomicLong progress) {
+        return tableListFromString(SpecCache.hash(jsonStr), jsonStr, null, progress);
+    }
+
+    @Override
+    public Map<String, Object> tableListFromString(String jsonStr, OperationFilter filter) {
+        return tableListFromString(SpecCache.hash(jsonStr), jsonStr, normalize(filter), new AtomicLong());
+    }
+
+    /**
+     * 解析 swagger json，相同内容的文档直接返回缓存的解析结果
+     *
+     * @param hash     文档内容 hash
+     * @param jsonStr  文档内容
+     * @param filter   接口筛选条件，为 null 时生成全部
+     * @param progress 已解析的接口数
+     * @return 解析结果
+     */
+    private Map<String, Object> tableListFromString(String hash, String jsonStr, OperationFilter filter, AtomicLong progress) {
+        String key = cacheKey(hash, filter);
+        Map<String, Object> cached = specCache.get(key);
+        metrics.cache(SPEC_CACHE, cached != null);
+        if (cached != null) {
+            progress.set(operationCount(cached));
+            return cached;
+        }
         Map<String, Object> resultMap = new HashMap<>();
         List<Table> result = new ArrayList<>();
         try {
-            Map<String, Object> map = getResultFromString(result, jsonStr);
-            Map<String, List<Table>> tableMap = result.stream().parallel().collect(Collectors.groupingBy(Table::getTitle));
-            resultMap.put("tableMap", new TreeMap<>(tableMap));
-            resultMap.put("info", map.get("info"));
+            ParseContext ctx = getResultFromString(result, jsonStr, filter, progress);
+            resultMap = toResultMap(key, utf8Length(jsonStr), result, ctx);
+        } catch (Exception e) {
+            log.error("parse error", e);
+        }
+        return resultMap;
+    }
 
-            log.debug(JsonUtils.writeJsonStr(resultMap));
+    @Override
+    public Map<String, Object> tableListFromStream(InputStream jsonStream) {
+        return tableListFromStream(jsonStream, new AtomicLong());
+    }
+
+    @Override
+    public Map<String, Object> tableListFromStream(InputStream jsonStream, AtomicLong progress) {
+        Map<String, Object> resultMap = new HashMap<>();
+        try {
+            resultMap = tableListFromSource(SpecSource.of(jsonStream), null, null, progress);
         } catch (Exception e) {
             log.error("parse error", e);
         }
@@ -66,158 +269,477 @@ public class WordServiceImpl implements WordService {
 
     @Override
     public Map<String, Object> tableList(MultipartFile jsonFile) {
+        return tableList(jsonFile, null);
+    }
+
+    @Override
+    public Map<String, Object> tableList(MultipartFile jsonFile, OperationFilter filter) {
         Map<String, Object> resultMap = new HashMap<>();
         try {
-            String jsonStr = new String(jsonFile.getBytes());
-            resultMap = tableListFromString(jsonStr);
-            log.debug(JsonUtils.writeJsonStr(resultMap));
+            // 上传的文件可以重复打开，paths 第二遍读取，不必暂存
+            resultMap = tableListFromSource(SpecSource.repeatable(jsonFile::getInputStream), jsonFile.getOriginalFilename(),
+                    normalize(filter), new AtomicLong());
         } catch (Exception e) {
             log.error("parse error", e);
         }
         return resultMap;
     }
 
-    private Map<String, Object> getResultFromString(List<Table> result, String jsonStr) throws IOException {
-        // convert JSON string to Map
-        Map<String, Object> map = JsonUtils.readValue(jsonStr, HashMap.class);
+    @Override
+    public Map<String, Object> tableListFromFile(Path specFile) {
+        return tableListFromFile(specFile, new AtomicLong());
+    }
 
-        Map<String, Object> commonInfos = parseCommonInfo(map);
+    @Override
+    public Map<String, Object> tableListFromFile(Path specFile, AtomicLong progress) {
+        Map<String, Object> resultMap = new HashMap<>();
+        try {
+            MappedFile mappedFile = MappedFile.map(specFile);
+            resultMap = tableListFromSource(SpecSource.repeatable(mappedFile::newInputStream),
+                    specFile.toAbsolutePath().toString(), null, progress);
+        } catch (Exception e) {
+            log.error("parse error", e);
+        }
+        return resultMap;
+    }
 
-        //解析model
-        Map<String, ModelAttr> definitionMap = parseDefinitions(map);
+    /**
+     * 从输入流解析 swagger json
+     * <p>
+     * 读完头部时整个文档已经读过一遍，hash 命中缓存则不再处理 paths，直接返回缓存的解析结果。
+     *
+     * @param source   数据源
+     * @param document 文档标识（url 或文件名），用于增量解析，为 null 时完整解析
+     * @param filter   接口筛选条件，为 null 时生成全部
+     * @param progress 已解析的接口数
+     * @return 解析结果
+     */
+    private Map<String, Object> tableListFromSource(SpecSource source, String document, OperationFilter filter,
+                                                    AtomicLong progress) throws IOException {
+        AtomicReference<Map<String, Object>> cached = new AtomicReference<>();
+        List<Table> result = new ArrayList<>();
+        SwaggerStreamParser parser = new SwaggerStreamParser(source, source.isRepeatable());
+        // 筛选后的结果只包含部分接口，增量快照也与完整生成分开保存
+        String snapshotKey = document == null ? null : cacheKey(document, filter);
+        ParseContext ctx = getResult(result, parser, snapshotKey, filter, progress, () -> {
+            cached.set(specCache.get(cacheKey(source.hash(), filter)));
+            metrics.cache(SPEC_CACHE, cached.get() != null);
+            return cached.get() == null;
+        });
+        if (cached.get() != null) {
+            progress.set(operationCount(cached.get()));
+            return cached.get();
+        }
+        return toResultMap(cacheKey(source.hash(), filter), source.size(), result, ctx);
+    }
 
-        //解析paths
-        Map<String, Map<String, Object>> paths = (Map<String, Map<String, Object>>) map.get("paths");
+    private static OperationFilter normalize(OperationFilter filter) {
+        return filter == null || filter.isEmpty() ? null : filter;
+    }
 
-        //获取全局请求参数格式作为默认请求参数格式
-        List<String> defaultConsumes = (List) map.getOrDefault("consumes",
-                Lists.newArrayList("application/json"));
+    /**
+     * 筛选后的解析结果与完整结果分开缓存
+     *
+     * @param hash   文档内容 hash 或文档标识
+     * @param filter 为 null 时即为 hash
+     */
+    private static String cacheKey(String hash, OperationFilter filter) {
+        return filter == null ? hash : hash + "#" + filter.key();
+    }
 
-        //获取全局响应参数格式作为默认响应参数格式
-        List<String> defaultProduces = (List) map.getOrDefault("produces",
-                Lists.newArrayList("application/json"));
+    /**
+     * UTF-8 编码后的字节数，与流式读取时 SpecSource.size 的单位一致
+     */
+    private static long utf8Length(String jsonStr) {
+        try {
+            return Utf8.encodedLength(jsonStr);
+        } catch (IllegalArgumentException e) {
+            // 含不成对的代理字符，按实际编码结果计算
+            return jsonStr.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
 
-        if (paths != null) {
+    /**
+     * 按 tag 分组并放入缓存
+     *
+     * @param hash   文档内容 hash，筛选时包含筛选条件
+     * @param size   文档大小，作为缓存权重
+     * @param result 生成的 Table 列表
+     * @param ctx    解析上下文
+     */
+    private Map<String, Object> toResultMap(String hash, long size, List<Table> result, ParseContext ctx) throws JsonProcessingException {
+        Map<String, Object> resultMap = new HashMap<>();
+        Map<String, List<Table>> tableMap = result.stream().parallel().collect(Collectors.groupingBy(Table::getTitle));
+        resultMap.put("tableMap", new TreeMap<>(tableMap));
+        resultMap.put("info", ctx.map.get("info"));
+        resultMap.put("specHash", hash);
+        resultMap.put("maxDepth", maxDepth);
+        metrics.spec(size, result.size(), ctx.resolver.size());
+        if (ctx.hasher != null) {
+            resultMap.put("tagHashes", tagHashes(tableMap, ctx.snapshot));
+            incrementalCache.putSnapshot(ctx.document, ctx.snapshot);
+            metrics.cache("operation", ctx.reused.get(), result.size() - ctx.reused.get());
+            log.info("incremental parse {}: {} operations reused, {} processed", ctx.document,
+                    ctx.reused.get(), result.size() - ctx.reused.get());
+        }
+        specCache.put(hash, size, resultMap);
 
-            Iterator<Entry<String, Map<String, Object>>> it = paths.entrySet().iterator();
-            while (it.hasNext()) {
-                Entry<String, Map<String, Object>> path = it.next();
+        if (log.isDebugEnabled()) {
+            log.debug(JsonUtils.writeJsonStr(resultMap));
+        }
+        return resultMap;
+    }
 
-                // 0. 获取该路由下所有请求方式的公共参数
-                Map<String, Object> methods = (Map<String, Object>) path.getValue();
-                List<LinkedHashMap> commonParameters = (ArrayList) methods.get("parameters");
+    /**
+     * tag 下所有接口的 hash 按顺序组合为 tag 的 hash，渲染时用于复用片段
+     */
+    private static Map<String, String> tagHashes(Map<String, List<Table>> tableMap, IncrementalCache.Snapshot snapshot) {
+        Map<Table, String> operationHashes = snapshot.hashes();
+        Map<String, String> tagHashes = new HashMap<>();
+        tableMap.forEach((title, tables) -> {
+            Hasher hasher = Hashing.sha256().newHasher();
+            hasher.putString(title, StandardCharsets.UTF_8);
+            tables.forEach(table -> hasher.putString(operationHashes.get(table), StandardCharsets.UTF_8));
+            tagHashes.put(title, hasher.hash().toString());
+        });
+        return tagHashes;
+    }
 
-                Iterator<Entry<String, Object>> it2 = path.getValue().entrySet().iterator();
-                // 1.请求路径
-                String url = path.getKey();
-                url = commonInfos.get("basePath") + url;
+    private ParseContext getResultFromString(List<Table> result, String jsonStr, OperationFilter filter,
+                                             AtomicLong progress) throws IOException {
+        SwaggerStreamParser parser = new SwaggerStreamParser(() -> JsonUtils.createParser(jsonStr), true);
+        return getResult(result, parser, null, filter, progress, () -> true);
+    }
 
-                while (it2.hasNext()) {
-                    Entry<String, Object> request = it2.next();
+    private static long operationCount(Map<String, Object> resultMap) {
+        Map<String, List<Table>> tableMap = (Map<String, List<Table>>) resultMap.get("tableMap");
+        return tableMap == null ? 0 : tableMap.values().stream().mapToLong(List::size).sum();
+    }
 
-                    // 2.请求方式，类似为 get,post,delete,put 这样
-                    String requestType = request.getKey();
+    /**
+     * 流式解析 swagger，每读出一个路由就生成对应的 Table
+     *
+     * @param result   生成的 Table 列表
+     * @param parser   swagger 流式解析器
+     * @param document  文档标识，用于增量解析，为 null 时完整解析
+     * @param filter    接口筛选条件，为 null 时生成全部
+     * @param progress  已解析的接口数
+     * @param readPaths 读完头部后调用，返回 false 时不再处理 paths
+     * @return 解析上下文，包含除 paths 以外的顶层字段
+     */
+    private ParseContext getResult(List<Table> result, SwaggerStreamParser parser, String document, OperationFilter filter,
+                                   AtomicLong progress, BooleanSupplier readPaths) throws IOException {
+        ParseContext ctx = new ParseContext();
+        // 按读取顺序保存各路由的处理结果，保证输出顺序与文档一致
+        Deque<Future<List<Table>>> pending = new ArrayDeque<>();
+        long start = metrics.start();
+        GenerationTrace trace = metrics.current();
 
-                    if ("parameters".equals(requestType)) {
-                        continue;
+        try {
+            parser.parse(new SwaggerStreamParser.Handler() {
+                @Override
+                public void header(Map<String, Object> header) {
+                    ctx.map.putAll(header);
+                    ctx.commonInfos.putAll(parseCommonInfo(ctx.map));
+
+                    //解析model
+                    long definitionsStart = metrics.start();
+                    // 只建立引用关系，ModelAttr 在接口用到时才解析
+                    ctx.resolver = new DefinitionResolver(ctx.map);
+                    metrics.stop(GenerationMetrics.DEFINITIONS, definitionsStart);
+                    ctx.openApi3 = OpenApi3Adapter.isOpenApi3(ctx.map);
+
+                    //获取全局请求参数格式作为默认请求参数格式
+                    ctx.defaultConsumes.addAll((List) ctx.map.getOrDefault("consumes",
+                            Lists.newArrayList("application/json")));
+
+                    //获取全局响应参数格式作为默认响应参数格式
+                    ctx.defaultProduces.addAll((List) ctx.map.getOrDefault("produces",
+                            Lists.newArrayList("application/json")));
+
+                    if (document != null && incrementalCache != null && incrementalCache.isEnabled()) {
+                        ctx.document = document;
+                        ctx.previous = incrementalCache.getSnapshot(document);
+                        ctx.hasher = new OperationHasher(ctx.resolver, ctx.commonInfos.get("basePath"),
+                                ctx.defaultConsumes, ctx.defaultProduces, ctx.openApi3, maxDepth);
                     }
+                }
 
-                    Map<String, Object> content = (Map<String, Object>) request.getValue();
+                @Override
+                public boolean readPaths() {
+                    return readPaths.getAsBoolean();
+                }
 
-                    // 4. 大标题（类说明）
-                    String title = String.valueOf(((List) content.get("tags")).get(0));
+                @Override
+                public boolean acceptPath(String url) {
+                    return filter == null || filter.acceptPath(url);
+                }
 
-                    // 5.小标题 （方法说明）
-                    String tag = String.valueOf(content.getOrDefault("operationId", ""));
+                @Override
+                public boolean acceptMethod(String method) {
+                    return filter == null || filter.acceptMethod(method);
+                }
 
-                    // 6.接口描述
-                    String description = String.valueOf(content.getOrDefault("description", ""));
+                @Override
+                public void path(String url, Map<String, Object> item) throws IOException {
+                    // 不保留的接口不处理，也不会解析它们引用的 definition
+                    Map<String, Object> pathItem = filter == null ? item : filter.apply(item);
+                    if (pathItem == null) {
+                        return;
+                    }
+                    pending.add(parseExecutor.submit(() -> {
+                        List<Table> tables = new ArrayList<>();
+                        GenerationTrace previous = metrics.attach(trace);
+                        try {
+                            processPath(tables, ctx, url, pathItem);
+                        } finally {
+                            metrics.attach(previous);
+                        }
+                        return tables;
+                    }));
+                    // 限制同时在处理中的路由数量，避免读出的路由全部堆积在内存中
+                    while (pending.size() > parallelism * 2) {
+                        result.addAll(take(pending.poll(), progress));
+                    }
+                }
+            });
+            while (!pending.isEmpty()) {
+                result.addAll(take(pending.poll(), progress));
+            }
+            metrics.definitions(ctx.resolver::resolved, maxDepth);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            metrics.stop(GenerationMetrics.PARSE, start);
+        }
+        return ctx;
+    }
 
-                    tag = StringUtils.isEmpty(tag) ? description : tag;
+    private List<Table> take(Future<List<Table>> future, AtomicLong progress) throws IOException {
+        try {
+            List<Table> tables = future.get();
+            progress.addAndGet(tables.size());
+            return tables;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("parse interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
 
-                    // 7.请求参数格式，类似于 multipart/form-data
-                    String requestForm = "";
-                    List<String> consumes = (List) content.get("consumes");
-                    if (consumes != null && consumes.size() > 0) {
-                        requestForm = StringUtils.join(consumes, ",");
-                    } else {
-                        requestForm = StringUtils.join(defaultConsumes, ",");
-                    }
+    /**
+     * 处理单个路由下的所有请求方式
+     *
+     * @param result   生成的 Table 列表
+     * @param ctx      解析上下文
+     * @param url      请求路径
+     * @param methods  该路由下的请求方式及公共参数
+     */
+    private void processPath(List<Table> result, ParseContext ctx, String url, Map<String, Object> methods) throws IOException {
+        if (ctx.openApi3) {
+            methods = OpenApi3Adapter.toSwagger2PathItem(methods, ctx.resolver);
+        }
+        Map<String, Object> map = ctx.map;
+        // 0. 获取该路由下所有请求方式的公共参数
+        List<LinkedHashMap> commonParameters = (ArrayList) methods.get("parameters");
 
-                    // 8.返回参数格式，类似于 application/json
-                    String responseForm = "";
-                    List<String> produces = (List) content.get("produces");
-                    if (produces != null && produces.size() > 0) {
-                        responseForm = StringUtils.join(produces, ",");
-                    } else {
-                        responseForm = StringUtils.join(defaultProduces, ",");
-                    }
+        Iterator<Entry<String, Object>> it2 = methods.entrySet().iterator();
+        // 1.请求路径
+        url = ctx.commonInfos.get("basePath") + url;
 
-                    // 9. 请求体
-                    List<LinkedHashMap> parameters = (ArrayList) content.get("parameters");
+        while (it2.hasNext()) {
+            Entry<String, Object> request = it2.next();
 
-                    if (!CollectionUtils.isEmpty(parameters)) {
-                        if (commonParameters != null) {
-                            parameters.addAll(commonParameters);
-                        }
-                    } else {
-                        if (commonParameters != null) {
-                            parameters = commonParameters;
-                        }
-                    }
+            // 2.请求方式，类似为 get,post,delete,put 这样
+            String requestType = request.getKey();
 
-                    // 10.返回体
-                    Map<String, Object> responses = (LinkedHashMap) content.get("responses");
-
-                    Map<String, List<Request>> requestMap = processRequestList(map, parameters, definitionMap);
-
-                    //封装Table
-                    Table table = new Table();
-
-                    table.setTitle(title);
-                    table.setUrl(url);
-                    table.setTag(tag);
-                    table.setDescription(description);
-                    table.setRequestForm(requestForm);
-                    table.setResponseForm(responseForm);
-                    table.setRequestType(requestType);
-                    table.setPathList(requestMap.get("path"));
-                    table.setQueryList(requestMap.get("query"));
-                    table.setBodyList(requestMap.get("body"));
-                    table.setResponseList(processResponseCodeList(responses));
-
-                    // 取出来状态是200时的返回值
-                    Map<String, Object> obj = (Map<String, Object>) responses.get("200");
-                    if (obj != null && obj.get("schema") != null) {
-                        table.setModelAttr(processResponseModelAttrs(map, obj, definitionMap));
-                    }
+            // 跳过 parameters 以及 x- 扩展字段
+            if (!OpenApi3Adapter.HTTP_METHODS.contains(requestType)) {
+                continue;
+            }
+
+            Map<String, Object> content = (Map<String, Object>) request.getValue();
+            long start = metrics.start();
+            long allocated = metrics.allocated();
+
+            // 3. 增量解析：接口及其引用的 definitions 都没有变化时复用上一次的 Table
+            String operationKey = requestType + " " + url;
+            String operationHash = null;
+            if (ctx.hasher != null) {
+                operationHash = ctx.hasher.hash(operationKey, content, commonParameters);
+                Table previous = ctx.previous == null ? null : ctx.previous.get(operationKey, operationHash);
+                if (previous != null) {
+                    ctx.snapshot.put(operationKey, operationHash, previous);
+                    ctx.reused.incrementAndGet();
+                    result.add(previous);
+                    metrics.operation(operationKey, start, allocated);
+                    continue;
+                }
+            }
 
-                    //示例
-                    table.setRequestParam(processRequestParam(table.getBodyList()));
-                    table.setResponseParam(processResponseParam(map, obj, definitionMap));
+            // 4. 大标题（类说明）
+            String title = String.valueOf(((List) content.get("tags")).get(0));
 
-                    result.add(table);
+            // 5.小标题 （方法说明）
+            String tag = String.valueOf(content.getOrDefault("operationId", ""));
+
+            // 6.接口描述
+            String description = String.valueOf(content.getOrDefault("description", ""));
+
+            tag = StringUtils.isEmpty(tag) ? description : tag;
+
+            // 7.请求参数格式，类似于 multipart/form-data
+            String requestForm = "";
+            List<String> consumes = (List) content.get("consumes");
+            if (consumes != null && consumes.size() > 0) {
+                requestForm = StringUtils.join(consumes, ",");
+            } else {
+                requestForm = StringUtils.join(ctx.defaultConsumes, ",");
+            }
+
+            // 8.返回参数格式，类似于 application/json
+            String responseForm = "";
+            List<String> produces = (List) content.get("produces");
+            if (produces != null && produces.size() > 0) {
+                responseForm = StringUtils.join(produces, ",");
+            } else {
+                responseForm = StringUtils.join(ctx.defaultProduces, ",");
+            }
+
+            // 9. 请求体
+            List<LinkedHashMap> parameters = (ArrayList) content.get("parameters");
+
+            if (!CollectionUtils.isEmpty(parameters)) {
+                if (commonParameters != null) {
+                    parameters.addAll(commonParameters);
                 }
+            } else {
+                if (commonParameters != null) {
+                    parameters = commonParameters;
+                }
+            }
+
+            // 10.返回体
+            Map<String, Object> responses = (LinkedHashMap) content.get("responses");
+
+            Map<String, List<Request>> requestMap = processRequestList(ctx, parameters);
+
+            //封装Table
+            Table table = new Table();
+
+            table.setTitle(title);
+            table.setUrl(url);
+            table.setTag(tag);
+            table.setDescription(description);
+            table.setRequestForm(requestForm);
+            table.setResponseForm(responseForm);
+            table.setRequestType(requestType);
+            table.setPathList(requestMap.get("path"));
+            table.setQueryList(requestMap.get("query"));
+            table.setBodyList(requestMap.get("body"));
+            table.setResponseList(processResponseCodeList(responses));
+
+            // 取出来状态是200时的返回值
+            Map<String, Object> obj = (Map<String, Object>) responses.get("200");
+            Schema responseSchema = obj == null ? null : ctx.resolver.schema(obj.get("schema"));
+            if (responseSchema != null) {
+                table.setModelAttr(processResponseModelAttrs(ctx, responseSchema));
+            }
+
+            //示例
+            long exampleStart = metrics.start();
+            table.setRequestParam(processRequestParam(ctx, table.getBodyList()));
+            table.setResponseParam(processResponseParam(ctx, responseSchema));
+            metrics.stop(GenerationMetrics.EXAMPLE, exampleStart);
+
+            // 示例用完整的属性生成，生成后再裁剪属性表格
+            expandOnce(table);
+
+            if (operationHash != null) {
+                ctx.snapshot.put(operationKey, operationHash, table);
+            }
+            result.add(table);
+            metrics.operation(operationKey, start, allocated);
+        }
+    }
+
+    /**
+     * 同一接口表格中每个引用的 definition 只展开一次，之后再引用到时不展开属性，只记下类名输出“见 类名”。
+     * definition 之间多处互相引用时，按层级展开的行数会随 maxDepth 指数增长
+     * <p>
+     * 共享的 definition 属性列表不修改，表格中的属性换成按输出顺序裁剪后的副本
+     */
+    private void expandOnce(Table table) {
+        Set<List<ModelAttr>> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<Request> requests : Arrays.asList(table.getPathList(), table.getQueryList(), table.getBodyList())) {
+            if (requests != null) {
+                for (Request request : requests) {
+                    request.setModelAttr(expandOnce(request.getModelAttr(), expanded));
+                }
+            }
+        }
+        table.setModelAttr(expandOnce(table.getModelAttr(), expanded));
+    }
+
+    private ModelAttr expandOnce(ModelAttr modelAttr, Set<List<ModelAttr>> expanded) {
+        if (modelAttr == null || CollectionUtils.isEmpty(modelAttr.getProperties())) {
+            return modelAttr;
+        }
+        ModelAttr copy = DefinitionResolver.copyOf(modelAttr);
+        expanded.add(modelAttr.getProperties());
+        copy.setProperties(expandOnce(modelAttr.getProperties(), expanded, 1));
+        return copy;
+    }
+
+    /**
+     * 按模板的输出顺序深度优先复制，超过 maxDepth 的属性模板不会输出，保留原列表
+     */
+    private List<ModelAttr> expandOnce(List<ModelAttr> properties, Set<List<ModelAttr>> expanded, int level) {
+        List<ModelAttr> copies = new ArrayList<>(properties.size());
+        for (ModelAttr property : properties) {
+            List<ModelAttr> children = property.getProperties();
+            if (CollectionUtils.isEmpty(children) || level >= maxDepth) {
+                copies.add(property);
+                continue;
             }
+            ModelAttr copy = DefinitionResolver.copyOf(property);
+            // 内联的对象随所在的 definition 展开，只有引用的 definition 记录是否展开过
+            if (StringUtils.isEmpty(property.getClassName()) || expanded.add(children)) {
+                copy.setProperties(expandOnce(children, expanded, level + 1));
+            } else {
+                copy.setProperties(new ArrayList<>());
+                copy.setSeeClass(property.getClassName());
+            }
+            copies.add(copy);
         }
-        return map;
+        return copies;
     }
 
     private Map<String, Object> parseCommonInfo(Map<String, Object> map) {
         Map<String, Object> commonInfos = new HashMap<>();
-        commonInfos.put("basePath", map.getOrDefault("basePath", ""));
+        if (OpenApi3Adapter.isOpenApi3(map)) {
+            commonInfos.put("basePath", OpenApi3Adapter.basePath(map));
+        } else {
+            commonInfos.put("basePath", map.getOrDefault("basePath", ""));
+        }
         return commonInfos;
     }
 
     /**
      * 处理请求参数列表
      *
+     * @param ctx        解析上下文
      * @param parameters
-     * @param definitinMap
      * @return
      */
-    private Map<String, List<Request>> processRequestList(Map<String, Object> map, List<LinkedHashMap> parameters, Map<String, ModelAttr> definitinMap) {
-        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) map.get("definitions");
+    private Map<String, List<Request>> processRequestList(ParseContext ctx, List<LinkedHashMap> parameters) {
         Map<String, List<Request>> requestMap = new HashMap<>();
         {
             requestMap.put("path", new ArrayList<>());
@@ -237,34 +759,29 @@ public class WordServiceImpl implements WordService {
                 // 考虑对象参数类型
                 if ("body".equals(in)) {
                     request.setType(String.valueOf(in));
-                    Map<String, Object> schema = (Map) param.get("schema");
-                    Object ref = schema.get("$ref");
+                    Schema schema = ctx.resolver.schema(param.get("schema"));
+                    Schema ref = schema.getRef() != null ? schema : null;
                     // 数组情况另外处理
-                    if (schema.get("type") != null && "array".equals(schema.get("type"))) {
-                        ref = ((Map) schema.get("items")).get("$ref");
+                    if (schema.isArray()) {
+                        Schema items = schema.getItems();
+                        ref = items != null && items.getRef() != null ? items : null;
                         if (ref != null) {
-                            String refName = ((Map) schema.get("items")).get("$ref").toString();
-                            //截取 #/definitions/ 后面的
-                            String clsName = refName.substring(14);
-                            request.setType("array:" + clsName);
-                        } else if (((Map) schema.get("items")).containsKey("type")) {
-                            request.setType("array:" + ((Map) schema.get("items")).get("type"));
+                            request.setType("array:" + DefinitionResolver.refName(ref.getRef()));
+                        } else if (items != null && items.getType() != null) {
+                            request.setType("array:" + items.getType());
                         } else {
                             request.setType("array");
                         }
                     }
                     if (ref != null) {
-                        request.setModelAttr(definitinMap.get(ref));
+                        request.setModelAttr(ctx.resolver.get(ref.getTarget()));
                     }
-                    if (schema.get("allOf") != null) {
-                        List<Map<String, Object>> items = (List<Map<String, Object>>) schema.get("allOf");
-                        for (Map<String, Object> entry : items) {
-                            if (entry.get("$ref") != null) {
-                                String refName = entry.get("$ref").toString();
-                                request.setModelAttr(definitinMap.getOrDefault(refName, new ModelAttr()));
-                            } else if (entry.get("properties") != null) {
-                                Map<String, Object> modeProperties1 = (Map<String, Object>) entry.get("properties");
-                                List<ModelAttr> modelAttrList = getModelAttrs(definitions, definitinMap, new ModelAttr(), modeProperties1);
+                    if (schema.getAllOf() != null) {
+                        for (Schema entry : schema.getAllOf()) {
+                            if (entry.getRef() != null) {
+                                request.setModelAttr(DefinitionResolver.copyOf(ctx.resolver.getOrEmpty(entry.getTarget())));
+                            } else if (entry.getProperties() != null) {
+                                List<ModelAttr> modelAttrList = ctx.resolver.resolveProperties(entry.getProperties());
                                 ModelAttr modelAttr = request.getModelAttr();
                                 if (modelAttr == null) {
                                     request.setModelAttr(new ModelAttr());
@@ -340,249 +857,109 @@ public class WordServiceImpl implements WordService {
     /**
      * 处理返回属性列表
      *
-     * @param responseObj
-     * @param definitinMap
+     * @param ctx    解析上下文
+     * @param schema 返回值的 schema
      * @return
      */
-    private ModelAttr processResponseModelAttrs(Map<String, Object> map, Map<String, Object> responseObj, Map<String, ModelAttr> definitinMap) {
-        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) map.get("definitions");
-
-        Map<String, Object> schema = (Map<String, Object>) responseObj.get("schema");
-        String type = (String) schema.get("type");
-        String ref = null;
-        //数组
-        if ("array".equals(type)) {
-            Map<String, Object> items = (Map<String, Object>) schema.get("items");
-            if (items != null && items.get("$ref") != null) {
-                ref = (String) items.get("$ref");
-            }
-        }
-        //对象
-        if (schema.get("$ref") != null) {
-            ref = (String) schema.get("$ref");
-        }
+    private ModelAttr processResponseModelAttrs(ParseContext ctx, Schema schema) {
+        Schema ref = responseRef(schema);
 
         //其他类型
         ModelAttr modelAttr = new ModelAttr();
-        modelAttr.setType(StringUtils.defaultIfBlank(type, StringUtils.EMPTY));
+        modelAttr.setType(StringUtils.defaultIfBlank(schema.getType(), StringUtils.EMPTY));
 
-        if (StringUtils.isNotBlank(ref) && definitinMap.get(ref) != null) {
-            modelAttr = definitinMap.get(ref);
+        if (ref != null && ctx.resolver.get(ref.getTarget()) != null) {
+            modelAttr = ctx.resolver.get(ref.getTarget());
         }
 
         // allOf
-        if (schema.get("allOf") != null) {
-            List<Map<String, Object>> items = (List<Map<String, Object>>) schema.get("allOf");
-            for (Map<String, Object> entry : items) {
-                if (entry.get("$ref") != null) {
-                    String refName = entry.get("$ref").toString();
-                    modelAttr.getProperties().addAll(definitinMap.getOrDefault(refName, new ModelAttr()).getProperties());
-                } else if (entry.get("properties") != null) {
-                    Map<String, Object> modeProperties1 = (Map<String, Object>) entry.get("properties");
-                    List<ModelAttr> modelAttrList = getModelAttrs(definitions, definitinMap, modelAttr, modeProperties1);
-                    List<ModelAttr> attrList = modelAttr.getProperties();
-                    for (ModelAttr newModel : modelAttrList) {
-                        for (int j = 0; j < attrList.size(); j++) {
-                            if (newModel.getName().equals(attrList.get(j).getName())) {
-                                attrList.set(j, newModel);
-                            }
-                        }
-                    }
-                }
-            }
+        if (schema.getAllOf() != null) {
+            modelAttr = DefinitionResolver.copyOf(modelAttr);
+            mergeAllOf(ctx, schema, modelAttr);
         }
 
         return modelAttr;
     }
 
     /**
-     * 解析Definition
+     * 返回值引用的 schema：对象为自身，数组为 items
      *
-     * @param map
-     * @return
+     * @return 没有引用时返回 null
      */
-    private Map<String, ModelAttr> parseDefinitions(Map<String, Object> map) {
-        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) map.get("definitions");
-        Map<String, ModelAttr> definitionMap = new HashMap<>(256);
-        if (definitions != null) {
-            Iterator<String> modelNameIt = definitions.keySet().iterator();
-            while (modelNameIt.hasNext()) {
-                String modeName = modelNameIt.next();
-                getAndPutModelAttr(definitions, definitionMap, modeName);
+    private static Schema responseRef(Schema schema) {
+        Schema ref = null;
+        //数组
+        if (schema.isArray()) {
+            Schema items = schema.getItems();
+            if (items != null && StringUtils.isNotEmpty(items.getRef())) {
+                ref = items;
             }
         }
-        return definitionMap;
+        //对象
+        if (StringUtils.isNotEmpty(schema.getRef())) {
+            ref = schema;
+        }
+        return ref;
     }
 
     /**
-     * 递归生成ModelAttr
-     * 对$ref类型设置具体属性
+     * 合并 allOf：引用的属性追加到末尾，内联属性替换同名属性
      */
-    private ModelAttr getAndPutModelAttr(Map<String, Map<String, Object>> swaggerMap, Map<String, ModelAttr> resMap, String modeName) {
-        ModelAttr modeAttr;
-        if ((modeAttr = resMap.get("#/definitions/" + modeName)) == null) {
-            modeAttr = new ModelAttr();
-            resMap.put("#/definitions/" + modeName, modeAttr);
-        } else if (modeAttr.isCompleted()) {
-            return resMap.get("#/definitions/" + modeName);
-        }
-
-        Map<String, Object> modeProperties = (Map<String, Object>) swaggerMap.get(modeName).getOrDefault("properties", new HashMap<>());
-        // map
-        if (swaggerMap.get(modeName).containsKey("additionalProperties")) {
-            modeProperties.put("dictionary key (*)", swaggerMap.get(modeName).get("additionalProperties"));
-        }
-        if (modeProperties.isEmpty()) {
-            return null;
-        }
-
-        List<ModelAttr> attrList = getModelAttrs(swaggerMap, resMap, modeAttr, modeProperties);
-        List allOf = (List) swaggerMap.get(modeName).get("allOf");
-        if (allOf != null) {
-            for (int i = 0; i < allOf.size(); i++) {
-                Map c = (Map) allOf.get(i);
-                if (c.get("$ref") != null) {
-                    String refName = c.get("$ref").toString();
-                    //截取 #/definitions/ 后面的
-                    String clsName = refName.substring(14);
-                    Map<String, Object> modeProperties1 = (Map<String, Object>) swaggerMap.get(clsName).get("properties");
-                    List<ModelAttr> attrList1 = getModelAttrs(swaggerMap, resMap, modeAttr, modeProperties1);
-                    if (!attrList1.isEmpty() && !attrList.isEmpty()) {
-                        attrList.addAll(attrList1);
-                    } else if (attrList.isEmpty() && !attrList1.isEmpty()) {
-                        attrList = attrList1;
+    private static void mergeAllOf(ParseContext ctx, Schema schema, ModelAttr modelAttr) {
+        for (Schema entry : schema.getAllOf()) {
+            if (entry.getRef() != null) {
+                modelAttr.getProperties().addAll(ctx.resolver.getOrEmpty(entry.getTarget()).getProperties());
+            } else if (entry.getProperties() != null) {
+                List<ModelAttr> modelAttrList = ctx.resolver.resolveProperties(entry.getProperties());
+                List<ModelAttr> attrList = modelAttr.getProperties();
+                for (ModelAttr newModel : modelAttrList) {
+                    for (int j = 0; j < attrList.size(); j++) {
+                        if (newModel.getName().equals(attrList.get(j).getName())) {
+                            attrList.set(j, newModel);
+                        }
                     }
                 }
             }
         }
-
-        Object title = swaggerMap.get(modeName).get("title");
-        Object description = swaggerMap.get(modeName).get("description");
-        modeAttr.setClassName(title == null ? "" : title.toString());
-        modeAttr.setDescription(description == null ? "" : description.toString());
-        modeAttr.setProperties(attrList);
-        modeAttr.setExample(attrList.size() != 0 ? "#ref" : swaggerMap.get(modeName).get("example"));
-        Object required = swaggerMap.get(modeName).get("required");
-        if (Objects.nonNull(required)) {
-            if ((required instanceof List) && !CollectionUtils.isEmpty(attrList)) {
-                List requiredList = (List) required;
-                attrList.stream().filter(m -> requiredList.contains(m.getName())).forEach(m -> m.setRequire(true));
-            } else if (required instanceof Boolean) {
-                modeAttr.setRequire(Boolean.parseBoolean(required.toString()));
-            }
-        }
-        return modeAttr;
-    }
-
-    private List<ModelAttr> getModelAttrs(Map<String, Map<String, Object>> swaggerMap, Map<String, ModelAttr> resMap, ModelAttr modeAttr, Map<String, Object> modeProperties) {
-        Iterator<Entry<String, Object>> mIt = modeProperties.entrySet().iterator();
-
-        List<ModelAttr> attrList = new ArrayList<>();
-
-        //解析属性
-        while (mIt.hasNext()) {
-            Entry<String, Object> mEntry = mIt.next();
-            Map<String, Object> attrInfoMap = (Map<String, Object>) mEntry.getValue();
-            ModelAttr child = new ModelAttr();
-            child.setName(mEntry.getKey());
-            child.setType((String) attrInfoMap.get("type"));
-            if (attrInfoMap.get("format") != null) {
-                child.setType(child.getType() + "(" + attrInfoMap.get("format") + ")");
-            }
-            child.setType(StringUtils.defaultIfBlank(child.getType(), "object"));
-
-            Object ref = attrInfoMap.get("$ref");
-            Object items = attrInfoMap.get("items");
-            if (items != null) {
-                if (((Map)items).containsKey("type")) {
-                    child.setType(child.getType() + ":" + ((Map)items).get("type"));
-                }
-            }
-            if (ref != null || (items != null && (ref = ((Map) items).get("$ref")) != null)) {
-                String refName = ref.toString();
-                //截取 #/definitions/ 后面的
-                String clsName = refName.substring(14);
-                modeAttr.setCompleted(true);
-                ModelAttr refModel = getAndPutModelAttr(swaggerMap, resMap, clsName);
-                if (refModel != null) {
-                    child.setProperties(refModel.getProperties());
-                }
-                child.setType(child.getType() + ":" + clsName);
-            } else if (attrInfoMap.containsKey("additionalProperties")) {
-                Map<String, Object> subModeProperties = new HashMap<>();
-                modeAttr.setCompleted(true);
-                if (ClassType.isMap(attrInfoMap.get("additionalProperties"))) {
-                    subModeProperties.put("dictionary key (*)", attrInfoMap.get("additionalProperties"));
-                    List<ModelAttr> subModelAttrList = getModelAttrs(swaggerMap, resMap, child, subModeProperties);
-                    child.setProperties(subModelAttrList);
-                }
-            }
-            child.setDescription((String) attrInfoMap.get("description"));
-            attrList.add(child);
-        }
-        return attrList;
     }
 
     /**
      * 处理返回值
      *
-     * @param responseObj
+     * @param schema 返回值的 schema，没有时为 null
      * @return
      */
-    private String processResponseParam(Map<String, Object> map, Map<String, Object> responseObj, Map<String, ModelAttr> definitinMap) throws JsonProcessingException {
-        Map<String, Map<String, Object>> definitions = (Map<String, Map<String, Object>>) map.get("definitions");
-        if (responseObj != null && responseObj.get("schema") != null) {
-            Map<String, Object> schema = (Map<String, Object>) responseObj.get("schema");
-            String type = (String) schema.get("type");
-            String ref = null;
-            // 数组
-            if ("array".equals(type)) {
-                Map<String, Object> items = (Map<String, Object>) schema.get("items");
-                if (items != null && items.get("$ref") != null) {
-                    ref = (String) items.get("$ref");
+    private String processResponseParam(ParseContext ctx, Schema schema) throws JsonProcessingException {
+        if (schema != null) {
+            Schema ref = responseRef(schema);
+            if (ref != null && ref.getTarget() != null) {
+                // 同一个 definition 的返回示例只序列化一次
+                Schema target = ref.getTarget();
+                String json = ctx.responseExamples.get(target);
+                if (json != null) {
+                    return json;
                 }
-            }
-            // 对象
-            if (schema.get("$ref") != null) {
-                ref = (String) schema.get("$ref");
-            }
-            if (StringUtils.isNotEmpty(ref)) {
-                ModelAttr modelAttr = definitinMap.get(ref);
+                ModelAttr modelAttr = ctx.resolver.get(target);
                 if (modelAttr != null && !CollectionUtils.isEmpty(modelAttr.getProperties())) {
                     Map<String, Object> responseMap = new HashMap<>(8);
                     for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-                        responseMap.put(subModelAttr.getName(), getValue(subModelAttr.getType(), subModelAttr));
+                        responseMap.put(subModelAttr.getName(), getValue(ctx, subModelAttr.getKind(), subModelAttr, 1));
                     }
-                    return JsonUtils.writePrettyJSON(responseMap);
+                    json = JsonUtils.writePrettyJSON(limitExample(responseMap));
+                    ctx.responseExamples.putIfAbsent(target, json);
+                    return json;
                 }
             }
 
             // allOf
-            if (schema.get("allOf") != null) {
-                List<Map<String, Object>> items = (List<Map<String, Object>>) schema.get("allOf");
+            if (schema.getAllOf() != null) {
                 Map<String, Object> responseMap = new HashMap<>();
                 ModelAttr modelAttr = new ModelAttr();
-                for (Map<String, Object> entry : items) {
-                    if (entry.get("$ref") != null) {
-                        String refName = entry.get("$ref").toString();
-                        modelAttr.getProperties().addAll(definitinMap.getOrDefault(refName, new ModelAttr()).getProperties());
-                    } else if (entry.get("properties") != null) {
-                        Map<String, Object> modeProperties1 = (Map<String, Object>) entry.get("properties");
-                        List<ModelAttr> modelAttrList = getModelAttrs(definitions, definitinMap, modelAttr, modeProperties1);
-                        List<ModelAttr> attrList = modelAttr.getProperties();
-                        for (ModelAttr newModel : modelAttrList) {
-                            for (int j = 0; j < attrList.size(); j++) {
-                                if (newModel.getName().equals(attrList.get(j).getName())) {
-                                    attrList.set(j, newModel);
-                                }
-                            }
-                        }
-                    }
-                }
+                mergeAllOf(ctx, schema, modelAttr);
                 for (ModelAttr modelAttr1: modelAttr.getProperties()) {
-                    responseMap.put(modelAttr1.getName(), getValue(modelAttr1.getType(), modelAttr1));
+                    responseMap.put(modelAttr1.getName(), getValue(ctx, modelAttr1.getKind(), modelAttr1, 1));
                 }
-                return JsonUtils.writePrettyJSON(responseMap);
+                return JsonUtils.writePrettyJSON(limitExample(responseMap));
             }
         }
         return StringUtils.EMPTY;
@@ -594,13 +971,13 @@ public class WordServiceImpl implements WordService {
      * @param list
      * @return
      */
-    private String processRequestParam(List<Request> list) throws IOException {
+    private String processRequestParam(ParseContext ctx, List<Request> list) throws IOException {
         Map<String, Object> jsonMap = new LinkedHashMap<>();
         if (list != null && list.size() > 0) {
             for (Request request : list) {
                 String name = request.getName();
                 String paramType = request.getParamType();
-                Object value = getValue(request.getType(), request.getModelAttr());
+                Object value = getValue(ctx, TypeKind.of(request.getType()), request.getModelAttr(), 0);
                 switch (paramType) {
                     case "body":{
                         //TODO 根据content-type序列化成不同格式，目前只用了json
@@ -616,70 +993,165 @@ public class WordServiceImpl implements WordService {
         if (!jsonMap.isEmpty()) {
             if (jsonMap.size() != 1) {
                 for (Entry<String, Object> entry : jsonMap.entrySet()) {
-                    res += JsonUtils.writePrettyJSON(entry.getValue());
+                    res += toPrettyJSON(ctx, entry.getValue());
                 }
             } else {
                 if (jsonMap.containsKey("body")) {
-                    res += JsonUtils.writePrettyJSON(jsonMap.get("body"));
+                    res += toPrettyJSON(ctx, jsonMap.get("body"));
                 } else {
-                    res += JsonUtils.writePrettyJSON(jsonMap);
+                    res += JsonUtils.writePrettyJSON(limitExample(jsonMap));
                 }
             }
         }
         return res;
     }
 
+    /**
+     * 序列化示例，getValue 返回的同一个对象只序列化一次
+     */
+    private String toPrettyJSON(ParseContext ctx, Object value) throws JsonProcessingException {
+        if (value == null) {
+            return JsonUtils.writePrettyJSON(null);
+        }
+        String json = ctx.exampleJson.get(value);
+        if (json == null) {
+            json = JsonUtils.writePrettyJSON(limitExample(value));
+            ctx.exampleJson.put(value, json);
+        }
+        return json;
+    }
+
+    /**
+     * 按层复制示例，字段和数组元素超过 exampleNodes 个后，更深层的对象、数组输出为空。
+     * <p>
+     * 同一个 definition 的示例对象是共用的，序列化时每出现一次就展开一次，
+     * definition 之间多处互相引用时，展开到 maxDepth 的大小会指数增长
+     */
+    private Object limitExample(Object value) {
+        ExampleLimit limit = new ExampleLimit(exampleNodes);
+        Object root = limit.copy(value);
+        Object[] next;
+        while ((next = limit.queue.poll()) != null) {
+            if (next[0] instanceof Map) {
+                Map<Object, Object> copy = (Map<Object, Object>) next[1];
+                for (Entry<?, ?> entry : ((Map<?, ?>) next[0]).entrySet()) {
+                    copy.put(entry.getKey(), limit.copy(entry.getValue()));
+                }
+            } else {
+                List<Object> copy = (List<Object>) next[1];
+                for (Object item : (List<?>) next[0]) {
+                    copy.add(limit.copy(item));
+                }
+            }
+        }
+        return root;
+    }
+
+    private static class ExampleLimit {
+
+        /**
+         * 待展开的 {原对象, 副本}
+         */
+        private final Deque<Object[]> queue = new ArrayDeque<>();
+
+        private int remaining;
+
+        private ExampleLimit(int nodes) {
+            this.remaining = nodes;
+        }
+
+        /**
+         * 每个值占用一个余量，对象、数组先复制为空的副本，还有余量时排队展开
+         */
+        private Object copy(Object value) {
+            if (!(value instanceof Map || value instanceof List)) {
+                remaining--;
+                return value;
+            }
+            Object copy = value instanceof Map ? new LinkedHashMap<>() : new ArrayList<>();
+            if (remaining-- > 0) {
+                queue.add(new Object[]{value, copy});
+            }
+            return copy;
+        }
+    }
+
     /**
      * 例子中，字段的默认值
      *
-     * @param type      类型
+     * @param ctx       解析上下文，缓存已生成的对象和数组示例
+     * @param kind      类型
      * @param modelAttr 引用的类型
+     * @param depth     当前嵌套层级，超过 maxDepth 的对象和数组不再展开
      * @return
      */
-    private Object getValue(String type, ModelAttr modelAttr) {
-        int pos;
-        if ((pos = type.indexOf(":")) != -1) {
-            type = type.substring(0, pos);
-        }
-        switch (type) {
-            case "string":
+    private Object getValue(ParseContext ctx, TypeKind kind, ModelAttr modelAttr, int depth) {
+        switch (kind) {
+            case STRING:
                 return "string";
-            case "string(date-time)":
+            case DATE_TIME:
                 return "2020/01/01 00:00:00";
-            case "integer":
-            case "integer(int64)":
-            case "integer(int32)":
-                return 0;
-            case "number":
+            case INTEGER:
+            case NUMBER:
                 return 0;
-            case "boolean":
+            case BOOLEAN:
                 return true;
-            case "file":
+            case FILE:
                 return "(binary)";
-            case "array":
-                List list = new ArrayList();
-                Map<String, Object> map = new LinkedHashMap<>();
-                if (modelAttr != null && !CollectionUtils.isEmpty(modelAttr.getProperties())) {
-                    for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-                        map.put(subModelAttr.getName(), getValue(subModelAttr.getType(), subModelAttr));
-                    }
-                    list.add(map);
+            case ARRAY:
+                if (modelAttr == null || CollectionUtils.isEmpty(modelAttr.getProperties()) || depth >= maxDepth) {
+                    return new ArrayList();
                 }
-                return list;
-            case "body":
-            case "object":
-                map = new LinkedHashMap<>();
-                if (modelAttr != null && !CollectionUtils.isEmpty(modelAttr.getProperties())) {
-                    for (ModelAttr subModelAttr : modelAttr.getProperties()) {
-                        map.put(subModelAttr.getName(), getValue(subModelAttr.getType(), subModelAttr));
+                List[] lists = ctx.arrayExamples.computeIfAbsent(modelAttr.getProperties(), k -> new List[maxDepth]);
+                synchronized (lists) {
+                    if (lists[depth] != null) {
+                        return lists[depth];
                     }
                 }
-                return map;
+                List list = new ArrayList();
+                list.add(getObjectValue(ctx, modelAttr, depth));
+                return publish(lists, depth, list);
+            case OBJECT:
+                if (modelAttr == null || CollectionUtils.isEmpty(modelAttr.getProperties()) || depth >= maxDepth) {
+                    return new LinkedHashMap<>();
+                }
+                return getObjectValue(ctx, modelAttr, depth);
             default:
                 return null;
         }
     }
 
+    /**
+     * 对象示例，属性列表相同（同一个 definition）且层级相同的对象共用一份示例
+     */
+    private Map<String, Object> getObjectValue(ParseContext ctx, ModelAttr modelAttr, int depth) {
+        Map[] maps = ctx.objectExamples.computeIfAbsent(modelAttr.getProperties(), k -> new Map[maxDepth]);
+        synchronized (maps) {
+            if (maps[depth] != null) {
+                return maps[depth];
+            }
+        }
+        // 在锁外生成，生成时会递归进入其他 definition 的示例
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (ModelAttr subModelAttr : modelAttr.getProperties()) {
+            map.put(subModelAttr.getName(), getValue(ctx, subModelAttr.getKind(), subModelAttr, depth + 1));
+        }
+        return publish(maps, depth, map);
+    }
+
+    /**
+     * 放入生成完的示例；多个线程同时生成时只保留最先放入的一份，都返回这一份，
+     * 保证 exampleJson 按引用缓存的是实际使用的对象
+     */
+    private static <T> T publish(T[] slots, int depth, T value) {
+        synchronized (slots) {
+            if (slots[depth] == null) {
+                slots[depth] = value;
+            }
+            return slots[depth];
+        }
+    }
+
     /**
      * 将map转换成url
      */
@@ -714,4 +1186,61 @@ public class WordServiceImpl implements WordService {
         }
         return sBuilder.toString();
     }
+
+    /**
+     * 单次解析的上下文，解析结束后丢弃
+     */
+    private static class ParseContext {
+
+        /**
+         * 除 paths 以外的顶层字段
+         */
+        private final Map<String, Object> map = new HashMap<>();
+
+        private final Map<String, Object> commonInfos = new HashMap<>();
+
+        private DefinitionResolver resolver;
+
+        /**
+         * 是否为 OpenAPI 3 文档
+         */
+        private boolean openApi3;
+
+        private final List<String> defaultConsumes = new ArrayList<>();
+
+        private final List<String> defaultProduces = new ArrayList<>();
+
+        /**
+         * 示例缓存，key 为 ModelAttr 的属性列表（按引用比较），引用同一 definition 的属性共用同一个列表
+         */
+        private final Map<List<ModelAttr>, Map[]> objectExamples = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        private final Map<List<ModelAttr>, List[]> arrayExamples = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        /**
+         * 示例对象 -> 格式化后的 json
+         */
+        private final Map<Object, String> exampleJson = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        /**
+         * 引用的 Schema -> 返回值示例
+         */
+        private final Map<Schema, String> responseExamples = new ConcurrentHashMap<>();
+
+        /**
+         * 增量解析的文档标识，未启用增量解析时 hasher 为 null
+         */
+        private String document;
+
+        private OperationHasher hasher;
+
+        /**
+         * 上一次解析同一文档的结果
+         */
+        private IncrementalCache.Snapshot previous;
+
+        private final IncrementalCache.Snapshot snapshot = new IncrementalCache.Snapshot();
+
+        private final AtomicInteger reused = new AtomicInteger();
+    }
 }
@@ -1,6 +1,8 @@
 package org.word.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -11,6 +13,8 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -47,6 +51,24 @@ public class JsonUtils {
         return null;
     }
 
+    public static JsonParser createParser(String jsonStr) throws IOException {
+        return objectMapper.getFactory().createParser(jsonStr);
+    }
+
+    /**
+     * 按字节自动识别 UTF-8/16/32 编码，关闭 parser 时同时关闭输入流
+     */
+    public static JsonParser createParser(InputStream in) throws IOException {
+        return objectMapper.getFactory().createParser(in);
+    }
+
+    /**
+     * UTF-8 编码，关闭 generator 时同时关闭输出流
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+    }
+
     public static JsonNode readNode(String jsonStr) throws IOException {
         return objectMapper.readTree(jsonStr);
     }
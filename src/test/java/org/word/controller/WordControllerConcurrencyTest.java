@@ -0,0 +1,78 @@
+package org.word.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+
+/**
+ * 并发上传时每个响应使用自己的文件名和文档内容，请求之间不共享状态
+ *
+ * @author cuixiuyin
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WordControllerConcurrencyTest {
+
+    private static final int CONCURRENCY = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void concurrentUploadsKeepTheirOwnFileName() throws Exception {
+        String spec;
+        try (InputStream in = getClass().getResourceAsStream("/sample.json")) {
+            spec = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>(CONCURRENCY);
+        try {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                // 标题各不相同，解析结果不会命中同一份缓存
+                byte[] content = spec.replace("Sample API", "Sample API " + i).getBytes(StandardCharsets.UTF_8);
+                MockMultipartFile file = new MockMultipartFile("jsonFile", "upload-" + i + ".json", "application/json", content);
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(multipart("/fileToWord").file(file)).andReturn().getResponse();
+                }));
+            }
+            // 所有线程就绪后同时发出请求
+            start.countDown();
+
+            for (int i = 0; i < CONCURRENCY; i++) {
+                MockHttpServletResponse response = responses.get(i).get(60, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatus());
+                assertEquals("attachment;filename=" + URLEncoder.encode("upload-" + i + ".doc", "utf-8"),
+                        response.getHeader("Content-disposition"));
+                assertTrue(response.getContentAsString().contains("Sample API " + i + "（1.0.0）"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}